@@ -1,10 +1,13 @@
 package com.balsam.oasis.common.registry.builder;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.balsam.oasis.common.registry.domain.definition.ConcurrencyConfig;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlCallPlan;
 import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
 import com.balsam.oasis.common.registry.domain.processor.PlsqlPostProcessor;
 import com.balsam.oasis.common.registry.domain.processor.PlsqlPreProcessor;
@@ -25,6 +28,21 @@ public class PlsqlDefinitionBuilder {
     private final List<PlsqlPreProcessor> preProcessors;
     private final List<PlsqlPostProcessor> postProcessors;
 
+    /**
+     * Statement timeout in seconds; null means no timeout
+     */
+    private final Integer queryTimeout;
+
+    /**
+     * Bulkhead limiting concurrent executions; null means unlimited
+     */
+    private final ConcurrencyConfig concurrencyConfig;
+
+    /**
+     * Bind slots of the block, compiled once by {@link Builder#build()}
+     */
+    private final PlsqlCallPlan callPlan;
+
     public static Builder builder(String name) {
         return new Builder(name);
     }
@@ -35,6 +53,8 @@ public class PlsqlDefinitionBuilder {
         private final Map<String, PlsqlParamDef<?>> parameters = new LinkedHashMap<>();
         private final List<PlsqlPreProcessor> preProcessors = new ArrayList<>();
         private final List<PlsqlPostProcessor> postProcessors = new ArrayList<>();
+        private Integer queryTimeout;
+        private ConcurrencyConfig concurrencyConfig;
 
         public Builder(String name) {
             Preconditions.checkNotNull(name, "PL/SQL name cannot be null");
@@ -75,17 +95,40 @@ public class PlsqlDefinitionBuilder {
             return this;
         }
 
+        public Builder queryTimeout(Integer seconds) {
+            this.queryTimeout = seconds;
+            return this;
+        }
+
+        public Builder maxConcurrency(int max) {
+            return maxConcurrency(max, 0, Duration.ZERO);
+        }
+
+        public Builder maxConcurrency(int max, int maxQueued, Duration queueTimeout) {
+            Preconditions.checkArgument(max > 0, "Max concurrency must be positive");
+            Preconditions.checkArgument(maxQueued >= 0, "Max queued must not be negative");
+            this.concurrencyConfig = ConcurrencyConfig.builder()
+                    .maxConcurrency(max)
+                    .maxQueued(maxQueued)
+                    .queueTimeout(queueTimeout)
+                    .build();
+            return this;
+        }
 
         public PlsqlDefinitionBuilder build() {
             Preconditions.checkNotNull(plsql, "PL/SQL is required");
             Preconditions.checkArgument(!plsql.trim().isEmpty(), "PL/SQL cannot be empty");
 
+            ImmutableMap<String, PlsqlParamDef<?>> params = ImmutableMap.copyOf(parameters);
             return new PlsqlDefinitionBuilder(
                     name,
                     plsql,
-                    ImmutableMap.copyOf(parameters),
+                    params,
                     ImmutableList.copyOf(preProcessors),
-                    ImmutableList.copyOf(postProcessors)
+                    ImmutableList.copyOf(postProcessors),
+                    queryTimeout,
+                    concurrencyConfig,
+                    PlsqlCallPlan.compile(plsql, params)
             );
         }
     }
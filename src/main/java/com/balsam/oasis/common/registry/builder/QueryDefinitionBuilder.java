@@ -9,7 +9,10 @@ import java.util.function.Function;
 
 import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
 import com.balsam.oasis.common.registry.domain.definition.CacheConfig;
+import com.balsam.oasis.common.registry.domain.definition.ChildQueryDef;
+import com.balsam.oasis.common.registry.domain.definition.ConcurrencyConfig;
 import com.balsam.oasis.common.registry.domain.definition.CriteriaDef;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
 import com.balsam.oasis.common.registry.domain.definition.ParamDef;
 import com.balsam.oasis.common.registry.domain.processor.PostProcessor;
 import com.balsam.oasis.common.registry.domain.processor.PreProcessor;
@@ -18,6 +21,8 @@ import com.balsam.oasis.common.registry.util.QueryUtils;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -65,14 +70,45 @@ public class QueryDefinitionBuilder {
     private final List<RowProcessor> rowProcessors;
     private final List<PostProcessor> postProcessors;
     private final CacheConfig cacheConfig;
+
+    /**
+     * TTL for cached total counts. Null means use the configured default.
+     */
+    private final Duration countCacheTTL;
     private final Integer defaultPageSize;
     private final Integer maxPageSize;
     private final boolean auditEnabled;
     private final boolean metricsEnabled;
     private final Integer queryTimeout;
 
+    /**
+     * Bulkhead limiting concurrent executions. Null means unlimited.
+     */
+    private final ConcurrencyConfig concurrencyConfig;
+
+    /**
+     * Workload lane this query is scheduled in
+     */
+    private final ExecutionLane lane;
+
+    /**
+     * Always read from the primary, never from a replica
+     */
+    private final boolean readYourWrites;
+
+    /**
+     * How stale a replica may be for this query. Null means the configured
+     * default.
+     */
+    private final Duration maxReplicaLag;
+
     // Query-specific fields
     private final Map<String, AttributeDef<?>> attributes;
+
+    /**
+     * Detail queries fetched in one batch per page and attached to each row
+     */
+    private final Map<String, ChildQueryDef> children;
     private final boolean paginationEnabled;
 
     /**
@@ -98,6 +134,18 @@ public class QueryDefinitionBuilder {
      */
     private final boolean selectMode;
 
+    /**
+     * Representative parameters used to run this query at startup. Null means
+     * the query is not prewarmed.
+     */
+    private final Map<String, Object> prewarmParams;
+
+    /**
+     * Fingerprint of the SQL, attributes, parameters and criteria. Cached results
+     * produced by a different version are discarded.
+     */
+    private final String version;
+
     public boolean hasAttributes() {
         return attributes != null && !attributes.isEmpty();
     }
@@ -118,6 +166,18 @@ public class QueryDefinitionBuilder {
         return attributes.get(name);
     }
 
+    /**
+     * The single primary key attribute, or null when none or several are
+     * declared
+     */
+    public AttributeDef<?> getPrimaryKeyAttribute() {
+        if (!hasAttributes()) {
+            return null;
+        }
+        List<AttributeDef<?>> keys = attributes.values().stream().filter(AttributeDef::primaryKey).toList();
+        return keys.size() == 1 ? keys.get(0) : null;
+    }
+
     public ParamDef<?> getParam(String name) {
         return parameters.get(name);
     }
@@ -135,6 +195,14 @@ public class QueryDefinitionBuilder {
         return cacheConfig != null && cacheConfig.isEnabled();
     }
 
+    public boolean isPrewarmEnabled() {
+        return prewarmParams != null;
+    }
+
+    public boolean hasChildren() {
+        return children != null && !children.isEmpty();
+    }
+
     public boolean hasPreProcessors() {
         return preProcessors != null && !preProcessors.isEmpty();
     }
@@ -164,6 +232,7 @@ public class QueryDefinitionBuilder {
         protected final Map<String, AttributeDef<?>> attributes = new LinkedHashMap<>();
         protected final Map<String, ParamDef<?>> parameters = new LinkedHashMap<>();
         protected final Map<String, CriteriaDef> criteria = new LinkedHashMap<>();
+        protected final Map<String, ChildQueryDef> children = new LinkedHashMap<>();
         protected final List<PreProcessor> preProcessors = new ArrayList<>();
         protected final List<RowProcessor> rowProcessors = new ArrayList<>();
         protected final List<PostProcessor> postProcessors = new ArrayList<>();
@@ -171,7 +240,8 @@ public class QueryDefinitionBuilder {
         // Cache configuration
         protected Boolean cacheEnabled = false;
         protected Duration cacheTTL;
-        protected Function<Object, String> cacheKeyGenerator;
+        protected Function<Map<String, Object>, String> cacheKeyGenerator;
+        protected Duration countCacheTTL;
 
         // Pagination configuration
         protected Integer defaultPageSize = 50;
@@ -185,12 +255,19 @@ public class QueryDefinitionBuilder {
         protected Boolean auditEnabled = true;
         protected Boolean metricsEnabled = true;
         protected Integer queryTimeout;
+        protected ConcurrencyConfig concurrencyConfig;
+        protected ExecutionLane lane = ExecutionLane.INTERACTIVE;
+        protected Boolean readYourWrites = false;
+        protected Duration maxReplicaLag;
 
         // Select mode configuration
         protected String valueAttribute;
         protected String labelAttribute;
         protected Boolean selectMode = false;
 
+        // Startup prewarm configuration
+        protected Map<String, Object> prewarmParams;
+
         protected Builder(String name) {
             Preconditions.checkNotNull(name, "Query name cannot be null");
             Preconditions.checkArgument(!name.trim().isEmpty(), "Query name cannot be empty");
@@ -259,6 +336,27 @@ public class QueryDefinitionBuilder {
             return this;
         }
 
+        /**
+         * Attach the rows of another registered query to each row, fetched with
+         * one IN-list statement per page instead of one lookup per row.
+         */
+        public Builder child(ChildQueryDef child) {
+            Preconditions.checkNotNull(child, "Child query cannot be null");
+            Preconditions.checkNotNull(child.queryName(), "Child query name cannot be null");
+            Preconditions.checkNotNull(child.parentKey(), "Child parent key cannot be null");
+            Preconditions.checkNotNull(child.childKey(), "Child key cannot be null");
+            Preconditions.checkNotNull(child.keysParam(), "Child keys parameter cannot be null");
+
+            if (this.children.containsKey(child.name()) || this.attributes.containsKey(child.name())) {
+                throw new IllegalStateException(String.format(
+                        "Duplicate child definition: '%s' is already defined in this query",
+                        child.name()));
+            }
+
+            this.children.put(child.name(), child);
+            return this;
+        }
+
         // Processor methods
         public Builder preProcessor(PreProcessor processor) {
             Preconditions.checkNotNull(processor, "PreProcessor cannot be null");
@@ -292,11 +390,21 @@ public class QueryDefinitionBuilder {
             return this;
         }
 
-        public Builder cacheKey(Function<Object, String> keyGenerator) {
+        public Builder cacheKey(Function<Map<String, Object>, String> keyGenerator) {
             this.cacheKeyGenerator = keyGenerator;
             return this;
         }
 
+        /**
+         * Cache the total count of a filtered result for the given TTL so paging
+         * through it does not re-run the count query. Works whether or not result
+         * caching is enabled. {@code Duration.ZERO} disables it for this query.
+         */
+        public Builder countCacheTTL(Duration ttl) {
+            this.countCacheTTL = ttl;
+            return this;
+        }
+
         // Pagination configuration
         public Builder defaultPageSize(Integer size) {
             Preconditions.checkArgument(size > 0, "Page size must be positive");
@@ -346,6 +454,61 @@ public class QueryDefinitionBuilder {
             return this;
         }
 
+        /**
+         * Allow at most {@code max} concurrent executions of this query; further
+         * requests are rejected immediately.
+         */
+        public Builder maxConcurrency(int max) {
+            return maxConcurrency(max, 0, Duration.ZERO);
+        }
+
+        /**
+         * Allow at most {@code max} concurrent executions of this query. Up to
+         * {@code maxQueued} requests wait up to {@code queueTimeout} for a slot;
+         * the rest are rejected with CONCURRENCY_LIMIT_EXCEEDED.
+         */
+        public Builder maxConcurrency(int max, int maxQueued, Duration queueTimeout) {
+            Preconditions.checkArgument(max > 0, "Max concurrency must be positive");
+            Preconditions.checkArgument(maxQueued >= 0, "Max queued must not be negative");
+            this.concurrencyConfig = ConcurrencyConfig.builder()
+                    .maxConcurrency(max)
+                    .maxQueued(maxQueued)
+                    .queueTimeout(queueTimeout)
+                    .build();
+            return this;
+        }
+
+        /**
+         * Schedule this query in the given workload lane. Defaults to
+         * INTERACTIVE; large extracts belong in EXPORT so they only use capacity
+         * interactive requests leave free.
+         */
+        public Builder lane(ExecutionLane lane) {
+            Preconditions.checkNotNull(lane, "Lane cannot be null");
+            this.lane = lane;
+            return this;
+        }
+
+        /**
+         * Read from the primary even when read replicas are configured, for
+         * queries that must see data written moments ago.
+         */
+        public Builder readYourWrites() {
+            this.readYourWrites = true;
+            return this;
+        }
+
+        /**
+         * Only read from replicas at most {@code lag} behind the primary; the
+         * primary is used when none is.
+         */
+        public Builder maxReplicaLag(Duration lag) {
+            Preconditions.checkNotNull(lag, "Replica lag cannot be null");
+            Preconditions.checkArgument(!lag.isNegative(), "Replica lag must not be negative");
+            this.maxReplicaLag = lag;
+            return this;
+        }
+
         /**
          * Configure this query as a select/LOV query with value and label attributes.
          * 
@@ -360,6 +523,23 @@ public class QueryDefinitionBuilder {
             return this;
         }
 
+        /**
+         * Run this query once at startup, before the application reports ready,
+         * to fill the result cache and warm the JDBC and mapping paths.
+         */
+        public Builder prewarm() {
+            return prewarm(Map.of());
+        }
+
+        /**
+         * Run this query once at startup with the given representative parameters.
+         */
+        public Builder prewarm(Map<String, Object> params) {
+            Preconditions.checkNotNull(params, "Prewarm parameters cannot be null");
+            this.prewarmParams = params;
+            return this;
+        }
+
         public QueryDefinitionBuilder build() {
             validate();
 
@@ -382,17 +562,25 @@ public class QueryDefinitionBuilder {
                     ImmutableList.copyOf(rowProcessors),
                     ImmutableList.copyOf(postProcessors),
                     cacheConfig,
+                    countCacheTTL,
                     defaultPageSize,
                     maxPageSize,
                     auditEnabled,
                     metricsEnabled,
                     queryTimeout,
+                    concurrencyConfig,
+                    lane,
+                    readYourWrites,
+                    maxReplicaLag,
                     ImmutableMap.copyOf(attributes),
+                    ImmutableMap.copyOf(children),
                     paginationEnabled,
                     fetchSize,
                     valueAttribute,
                     labelAttribute,
-                    selectMode);
+                    selectMode,
+                    prewarmParams != null ? ImmutableMap.copyOf(prewarmParams) : null,
+                    computeVersion());
 
             // Comprehensive validation:
             // 1. Validates no duplicate definitions within the query (attributes, params,
@@ -404,6 +592,34 @@ public class QueryDefinitionBuilder {
             return queryDef;
         }
 
+        private String computeVersion() {
+            Hasher hasher = Hashing.murmur3_128().newHasher()
+                    .putUnencodedChars(name).putByte((byte) 0)
+                    .putUnencodedChars(sql).putByte((byte) 0)
+                    .putBoolean(selectMode)
+                    .putBoolean(paginationEnabled);
+            attributes.values().forEach(attr -> hasher
+                    .putUnencodedChars(attr.name()).putByte((byte) 0)
+                    .putUnencodedChars(String.valueOf(attr.aliasName())).putByte((byte) 0)
+                    .putUnencodedChars(attr.type().getName()).putByte((byte) 0)
+                    .putBoolean(attr.virtual())
+                    .putBoolean(attr.hasFormatter()));
+            parameters.values().forEach(param -> hasher
+                    .putUnencodedChars(param.name()).putByte((byte) 0)
+                    .putUnencodedChars(String.valueOf(param.type())).putByte((byte) 0)
+                    .putUnencodedChars(String.valueOf(param.defaultValue())).putByte((byte) 0)
+                    .putBoolean(param.required()));
+            criteria.values().forEach(criteriaDef -> hasher
+                    .putUnencodedChars(criteriaDef.name()).putByte((byte) 0)
+                    .putUnencodedChars(String.valueOf(criteriaDef.sql())).putByte((byte) 0));
+            children.values().forEach(child -> hasher
+                    .putUnencodedChars(child.name()).putByte((byte) 0)
+                    .putUnencodedChars(child.queryName()).putByte((byte) 0)
+                    .putUnencodedChars(child.parentKey()).putByte((byte) 0)
+                    .putUnencodedChars(child.childKey()).putByte((byte) 0));
+            return hasher.hash().toString();
+        }
+
         private void validate() {
             Preconditions.checkNotNull(sql, "SQL is required");
             Preconditions.checkArgument(!sql.trim().isEmpty(), "SQL cannot be empty");
@@ -1,23 +1,48 @@
 package com.balsam.oasis.common.registry.config;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.balsam.oasis.common.registry.engine.cache.OffHeapResultStore;
+import com.balsam.oasis.common.registry.engine.cache.QueryResultCache;
+import com.balsam.oasis.common.registry.engine.cache.ResultSnapshotStore;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
+import com.balsam.oasis.common.registry.engine.concurrency.ConcurrencyLimiter;
+import com.balsam.oasis.common.registry.engine.concurrency.LaneScheduler;
+import com.balsam.oasis.common.registry.engine.query.KeyLookupBatcher;
+import com.balsam.oasis.common.registry.engine.query.QueryCountCache;
 import com.balsam.oasis.common.registry.engine.query.QueryExecutorImpl;
+import com.balsam.oasis.common.registry.engine.query.QueryPrewarmer;
 import com.balsam.oasis.common.registry.engine.query.QueryRegistryImpl;
 import com.balsam.oasis.common.registry.engine.query.QuerySqlBuilder;
 import com.balsam.oasis.common.registry.service.QueryService;
+import com.balsam.oasis.common.registry.web.actuator.QueryPrewarmEndpoint;
 import com.balsam.oasis.common.registry.web.controller.QueryController;
 import com.balsam.oasis.common.registry.web.parser.QueryRequestParser;
 import com.balsam.oasis.common.registry.engine.plsql.PlsqlExecutorImpl;
+import com.balsam.oasis.common.registry.engine.plsql.PlsqlJobManager;
 import com.balsam.oasis.common.registry.engine.plsql.PlsqlRegistryImpl;
 import com.balsam.oasis.common.registry.service.PlsqlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Configuration for Query Registration System
  */
 @Configuration
+@EnableConfigurationProperties(QueryProperties.class)
 public class QueryConfiguration {
 
     @Bean
@@ -30,10 +55,103 @@ public class QueryConfiguration {
         return new QueryRegistryImpl();
     }
 
+    @Bean
+    QueryCountCache queryCountCache(QueryProperties properties) {
+        QueryProperties.CacheProperties cache = properties.getCache();
+        return new QueryCountCache(cache.getCountTtl(), cache.getCountMaxEntries());
+    }
+
+    @Bean
+    QueryResultCache queryResultCache(QueryProperties properties) {
+        QueryProperties.CacheProperties cache = properties.getCache();
+        ResultSnapshotStore snapshots = null;
+        if (cache.getSnapshot().isEnabled()) {
+            snapshots = new ResultSnapshotStore(Path.of(cache.getSnapshot().getDirectory()));
+        }
+        OffHeapResultStore offHeap = null;
+        if (cache.getOffHeap().isEnabled()) {
+            offHeap = new OffHeapResultStore(cache.getOffHeap().getMaxBytes().toBytes(),
+                    (int) cache.getOffHeap().getSlabSize().toBytes());
+        }
+        return new QueryResultCache(cache.getMaxEntries(), snapshots, offHeap, cache.getOffHeap().getMinRows());
+    }
+
+    /**
+     * Executor for asynchronous query and PL/SQL execution. Blocking JDBC calls
+     * must never run on the common ForkJoinPool.
+     */
+    @Bean
+    Executor queryExecutionExecutor(QueryProperties properties) {
+        QueryProperties.ExecutionProperties execution = properties.getExecution();
+        return switch (execution.getMode()) {
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("query-exec-", 0).factory());
+            case BOUNDED -> new ThreadPoolExecutor(
+                    execution.getPoolSize(), execution.getPoolSize(),
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(execution.getQueueCapacity()),
+                    new ThreadFactoryBuilder().setNameFormat("query-exec-%d").setDaemon(true).build());
+            case CALLER -> Runnable::run;
+        };
+    }
+
+    @Bean
+    ConcurrencyLimiter queryConcurrencyLimiter(QueryProperties properties) {
+        QueryProperties.LimiterProperties limiter = properties.getLimiter();
+        if (!limiter.isEnabled()) {
+            return ConcurrencyLimiter.disabled();
+        }
+        return new ConcurrencyLimiter(
+                settings(limiter.getGlobal(), limiter),
+                settings(limiter.getPerQuery(), limiter));
+    }
+
+    private static ConcurrencyLimiter.Settings settings(QueryProperties.LimitProperties limit,
+            QueryProperties.LimiterProperties limiter) {
+        return new ConcurrencyLimiter.Settings(limit.getInitial(), limit.getMin(), limit.getMax(),
+                limiter.getTolerance(), limiter.getBackoffRatio());
+    }
+
     @Bean
     QueryExecutorImpl queryExecutor(JdbcTemplate jdbcTemplate, QuerySqlBuilder sqlBuilder,
-            QueryRegistryImpl queryRegistry) {
-        return new QueryExecutorImpl(jdbcTemplate, sqlBuilder, queryRegistry);
+            QueryRegistryImpl queryRegistry, QueryCountCache queryCountCache, QueryResultCache queryResultCache,
+            Executor queryExecutionExecutor, PlatformTransactionManager transactionManager,
+            ConcurrencyLimiter queryConcurrencyLimiter, QueryProperties properties) {
+        return new QueryExecutorImpl(jdbcTemplate, sqlBuilder, queryRegistry, queryCountCache, queryResultCache,
+                queryExecutionExecutor, transactionManager, queryConcurrencyLimiter, laneScheduler(properties));
+    }
+
+    /**
+     * Lane scheduler for the query executor, or null when lanes are disabled
+     */
+    private static LaneScheduler laneScheduler(QueryProperties properties) {
+        QueryProperties.LaneProperties lanes = properties.getLanes();
+        if (!lanes.isEnabled()) {
+            return null;
+        }
+        return new LaneScheduler(lanes.getTotalConcurrency(), Map.of(
+                ExecutionLane.INTERACTIVE, budget(lanes.getInteractive()),
+                ExecutionLane.BATCH, budget(lanes.getBatch()),
+                ExecutionLane.EXPORT, budget(lanes.getExport())));
+    }
+
+    private static LaneScheduler.Budget budget(QueryProperties.LaneBudgetProperties lane) {
+        return new LaneScheduler.Budget(lane.getMaxConcurrency(), lane.getMaxQueued(), lane.getQueueTimeout());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "query.registration.prewarm", name = "enabled", matchIfMissing = true)
+    QueryPrewarmer queryPrewarmer(QueryRegistryImpl queryRegistry, QueryExecutorImpl queryExecutor,
+            QueryProperties properties) {
+        QueryProperties.PrewarmProperties prewarm = properties.getPrewarm();
+        return new QueryPrewarmer(queryRegistry, queryExecutor, prewarm.getConcurrency(),
+                prewarm.getTimeout().toMillis());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "query.registration.prewarm", name = "enabled", matchIfMissing = true)
+    QueryPrewarmEndpoint queryPrewarmEndpoint(QueryPrewarmer queryPrewarmer) {
+        return new QueryPrewarmEndpoint(queryPrewarmer);
     }
 
     @Bean
@@ -41,17 +159,30 @@ public class QueryConfiguration {
         return new QueryRequestParser();
     }
 
+    @Bean(destroyMethod = "shutdown")
+    KeyLookupBatcher keyLookupBatcher(QueryExecutorImpl queryExecutor, QueryProperties properties) {
+        QueryProperties.KeyLookupProperties keyLookup = properties.getKeyLookup();
+        return new KeyLookupBatcher(queryExecutor, keyLookup.getWindow(), keyLookup.getMaxBatchSize());
+    }
+
     @Bean
-    QueryService queryService(QueryExecutorImpl queryExecutor, QueryRegistryImpl queryRegistry) {
-        return new QueryService(queryExecutor, queryRegistry);
+    QueryService queryService(QueryExecutorImpl queryExecutor, QueryRegistryImpl queryRegistry,
+            KeyLookupBatcher keyLookupBatcher, QueryProperties properties) {
+        QueryProperties.BatchProperties batch = properties.getBatch();
+        return new QueryService(queryExecutor, queryRegistry, keyLookupBatcher, batch.getParallelism(),
+                batch.getMaxItems());
     }
 
     @Bean
     QueryController queryController(
             QueryService queryService,
             QueryRequestParser requestParser,
-            PlsqlService plsqlService) {
-        return new QueryController(queryService, requestParser, plsqlService);
+            PlsqlService plsqlService,
+            Executor queryExecutionExecutor,
+            ObjectMapper objectMapper,
+            QueryProperties properties) {
+        return new QueryController(queryService, requestParser, plsqlService, queryExecutionExecutor, objectMapper,
+                properties.getPlsqlJobs().getMaxWait());
     }
 
     // PL/SQL Configuration
@@ -61,13 +192,25 @@ public class QueryConfiguration {
     }
 
     @Bean
-    PlsqlExecutorImpl plsqlExecutor(JdbcTemplate jdbcTemplate, PlsqlRegistryImpl plsqlRegistry) {
-        return new PlsqlExecutorImpl(jdbcTemplate, plsqlRegistry);
+    PlsqlExecutorImpl plsqlExecutor(JdbcTemplate jdbcTemplate, PlsqlRegistryImpl plsqlRegistry,
+            Executor queryExecutionExecutor, PlatformTransactionManager transactionManager,
+            QueryProperties properties) {
+        return new PlsqlExecutorImpl(jdbcTemplate, plsqlRegistry, queryExecutionExecutor, transactionManager,
+                properties.getPlsqlBatch().getChunkSize());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    PlsqlJobManager plsqlJobManager(QueryProperties properties) {
+        QueryProperties.PlsqlJobProperties jobs = properties.getPlsqlJobs();
+        return new PlsqlJobManager(jobs.getPoolSize(), jobs.getQueueCapacity(), jobs.getRetention(),
+                jobs.getMaxRetained());
     }
 
     @Bean
-    PlsqlService plsqlService(PlsqlExecutorImpl plsqlExecutor, PlsqlRegistryImpl plsqlRegistry) {
-        return new PlsqlService(plsqlExecutor, plsqlRegistry);
+    PlsqlService plsqlService(PlsqlExecutorImpl plsqlExecutor, PlsqlRegistryImpl plsqlRegistry,
+            PlsqlJobManager plsqlJobManager, QueryProperties properties) {
+        return new PlsqlService(plsqlExecutor, plsqlRegistry, plsqlJobManager,
+                properties.getPlsqlBatch().getMaxSize());
     }
 
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package com.balsam.oasis.common.registry.config;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import com.balsam.oasis.common.registry.engine.routing.ReplicaRoutingDataSource;
+
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Simplified configuration properties for Query Registration System
@@ -25,6 +32,56 @@ public class QueryProperties {
      */
     private JdbcProperties jdbc = new JdbcProperties();
 
+    /**
+     * Result and count cache configuration
+     */
+    private CacheProperties cache = new CacheProperties();
+
+    /**
+     * Startup prewarm of queries flagged with prewarm()
+     */
+    private PrewarmProperties prewarm = new PrewarmProperties();
+
+    /**
+     * Executor used by executeAsync() and other off-thread execution
+     */
+    private ExecutionProperties execution = new ExecutionProperties();
+
+    /**
+     * Adaptive concurrency limiter that sheds load when the database slows down
+     */
+    private LimiterProperties limiter = new LimiterProperties();
+
+    /**
+     * Workload lanes scheduling interactive work ahead of batch and export work
+     */
+    private LaneProperties lanes = new LaneProperties();
+
+    /**
+     * Read replicas for query traffic
+     */
+    private ReplicaProperties replicas = new ReplicaProperties();
+
+    /**
+     * POST /batch fan-out
+     */
+    private BatchProperties batch = new BatchProperties();
+
+    /**
+     * POST /execute/{name}/batch
+     */
+    private PlsqlBatchProperties plsqlBatch = new PlsqlBatchProperties();
+
+    /**
+     * POST /execute/{name}/async background jobs
+     */
+    private PlsqlJobProperties plsqlJobs = new PlsqlJobProperties();
+
+    /**
+     * Merging of concurrent single-key lookups into IN-list executions
+     */
+    private KeyLookupProperties keyLookup = new KeyLookupProperties();
+
     @Data
     public static class RestProperties {
         private String prefix = "/api/query";
@@ -39,4 +96,207 @@ public class QueryProperties {
         private boolean enableSqlLogging = true;
     }
 
-}
\ No newline at end of file
+    @Data
+    public static class CacheProperties {
+        /**
+         * Default TTL for cached total counts; queries can override it with
+         * countCacheTTL(). Zero disables count caching.
+         */
+        private Duration countTtl = Duration.ofSeconds(30);
+        private long countMaxEntries = 10_000;
+
+        /**
+         * Maximum number of results kept in the on-heap result cache
+         */
+        private long maxEntries = 1_000;
+
+        /**
+         * Persistent snapshot tier for cached results
+         */
+        private SnapshotProperties snapshot = new SnapshotProperties();
+
+        /**
+         * Off-heap tier for large cached results
+         */
+        private OffHeapProperties offHeap = new OffHeapProperties();
+    }
+
+    @Data
+    public static class SnapshotProperties {
+        private boolean enabled = false;
+        private String directory = System.getProperty("java.io.tmpdir") + "/query-registry-cache";
+    }
+
+    @Data
+    public static class OffHeapProperties {
+        private boolean enabled = false;
+        /**
+         * Direct memory budget; keep it below -XX:MaxDirectMemorySize
+         */
+        private DataSize maxBytes = DataSize.ofMegabytes(256);
+        private DataSize slabSize = DataSize.ofKilobytes(64);
+        /**
+         * Results with more rows than this are kept off-heap instead of on-heap
+         */
+        private int minRows = 500;
+    }
+
+    @Data
+    public static class ExecutionProperties {
+        /**
+         * VIRTUAL runs each execution on its own virtual thread, BOUNDED on a
+         * fixed platform pool, CALLER on the calling thread
+         */
+        private ExecutorMode mode = ExecutorMode.VIRTUAL;
+        private int poolSize = 32;
+        private int queueCapacity = 1000;
+    }
+
+    public enum ExecutorMode {
+        VIRTUAL, BOUNDED, CALLER
+    }
+
+    @Data
+    public static class LimiterProperties {
+        /**
+         * Off by default: acquisition never waits, so a limit below the
+         * connection pool sheds requests the database could still serve
+         */
+        private boolean enabled = false;
+        /**
+         * A completion slower than tolerance x baseline latency counts as congestion
+         */
+        private double tolerance = 2.0;
+        /**
+         * Multiplicative decrease applied to the limit on congestion
+         */
+        private double backoffRatio = 0.9;
+        private LimitProperties global = new LimitProperties(100, 5, 100);
+        private LimitProperties perQuery = new LimitProperties(50, 2, 100);
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LimitProperties {
+        private int initial = 10;
+        private int min = 1;
+        private int max = 100;
+    }
+
+    @Data
+    public static class LaneProperties {
+        /**
+         * Off by default: the total caps query concurrency, so it has to be
+         * sized against the connection pool before lanes are turned on
+         */
+        private boolean enabled = false;
+        /**
+         * Executions running at once across all lanes; size it just below the
+         * connection pool so lanes only order work the pool could not run anyway
+         */
+        private int totalConcurrency = 90;
+        private LaneBudgetProperties interactive = new LaneBudgetProperties(90, 200, Duration.ofSeconds(2));
+        private LaneBudgetProperties batch = new LaneBudgetProperties(40, 50, Duration.ofSeconds(30));
+        private LaneBudgetProperties export = new LaneBudgetProperties(16, 10, Duration.ofMinutes(2));
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LaneBudgetProperties {
+        private int maxConcurrency = 10;
+        private int maxQueued = 50;
+        private Duration queueTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class ReplicaProperties {
+        private boolean enabled = false;
+        private ReplicaRoutingDataSource.Selection selection = ReplicaRoutingDataSource.Selection.ROUND_ROBIN;
+        /**
+         * Lag tolerated for queries without their own maxReplicaLag
+         */
+        private Duration defaultMaxLag = Duration.ofSeconds(5);
+        /**
+         * SQL run on each replica returning its apply lag in seconds; without
+         * it replicas are assumed current
+         */
+        private String lagQuery;
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+        private List<ReplicaNodeProperties> nodes = new ArrayList<>();
+    }
+
+    @Data
+    public static class ReplicaNodeProperties {
+        /**
+         * Name used in logs; defaults to replica-N
+         */
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+    }
+
+    @Data
+    public static class BatchProperties {
+        /**
+         * Maximum number of items of one batch running at the same time
+         */
+        private int parallelism = 8;
+        private int maxItems = 20;
+    }
+
+    @Data
+    public static class PlsqlBatchProperties {
+        /**
+         * Parameter sets executed in one transaction and, for blocks without
+         * OUT parameters, one executeBatch call
+         */
+        private int chunkSize = 100;
+        private int maxSize = 1000;
+    }
+
+    @Data
+    public static class PlsqlJobProperties {
+        private int poolSize = 4;
+        private int queueCapacity = 100;
+        /**
+         * How long a finished job's outputs stay available for polling
+         */
+        private Duration retention = Duration.ofMinutes(15);
+        private long maxRetained = 1_000;
+        /**
+         * Upper bound for the wait parameter of GET /jobs/{id}
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class KeyLookupProperties {
+        /**
+         * How long a single-key lookup waits for others to join its batch;
+         * zero runs every lookup on its own
+         */
+        private Duration window = Duration.ofMillis(2);
+        /**
+         * A batch is sent as soon as it holds this many keys
+         */
+        private int maxBatchSize = 100;
+    }
+
+    @Data
+    public static class PrewarmProperties {
+        private boolean enabled = true;
+        /**
+         * Maximum number of prewarm queries running against the database at once
+         */
+        private int concurrency = 4;
+        /**
+         * Upper bound on how long startup waits for prewarming
+         */
+        private Duration timeout = Duration.ofMinutes(2);
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.balsam.oasis.common.registry.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.balsam.oasis.common.registry.web.controller.ExecutionDeadlineInterceptor;
+
+/**
+ * Async request handling for the query endpoints. The async timeout itself is
+ * set through {@code spring.mvc.async.request-timeout}. Streaming responses
+ * run on the query execution executor, like every other blocking JDBC call.
+ */
+@Configuration
+public class QueryWebConfiguration implements WebMvcConfigurer {
+
+    private final Executor queryExecutionExecutor;
+
+    public QueryWebConfiguration(Executor queryExecutionExecutor) {
+        this.queryExecutionExecutor = queryExecutionExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        ExecutionDeadlineInterceptor interceptor = new ExecutionDeadlineInterceptor();
+        configurer.registerDeferredResultInterceptors(interceptor);
+        configurer.registerCallableInterceptors(interceptor);
+        configurer.setTaskExecutor(new TaskExecutorAdapter(queryExecutionExecutor));
+    }
+}
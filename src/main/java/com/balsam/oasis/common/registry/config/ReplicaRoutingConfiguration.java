@@ -0,0 +1,63 @@
+package com.balsam.oasis.common.registry.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.balsam.oasis.common.registry.engine.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the auto-configured DataSource with a {@link ReplicaRoutingDataSource}
+ * when {@code query.registration.replicas.enabled=true}. The primary pool is
+ * still configured through {@code spring.datasource.*}; each replica gets its
+ * own Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "query.registration.replicas", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    ReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties dataSourceProperties,
+            QueryProperties properties) {
+        QueryProperties.ReplicaProperties replicas = properties.getReplicas();
+        List<QueryProperties.ReplicaNodeProperties> nodes = replicas.getNodes();
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("query.registration.replicas.enabled is set but no nodes are configured");
+        }
+
+        Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            QueryProperties.ReplicaNodeProperties node = nodes.get(i);
+            String name = node.getName() != null ? node.getName() : "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(node.getUrl());
+            replica.setUsername(node.getUsername() != null ? node.getUsername() : dataSourceProperties.getUsername());
+            replica.setPassword(node.getPassword() != null ? node.getPassword() : dataSourceProperties.getPassword());
+            replica.setDriverClassName(dataSourceProperties.getDriverClassName());
+            replica.setMaximumPoolSize(node.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replicaDataSources.put(name, replica);
+        }
+
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources, replicas.getSelection(),
+                replicas.getDefaultMaxLag(), replicas.getLagQuery(), replicas.getLagCheckInterval());
+    }
+}
@@ -4,9 +4,12 @@ import com.balsam.oasis.common.registry.domain.execution.QueryContext;
 import com.balsam.oasis.common.registry.domain.metadata.QueryMetadata;
 import com.balsam.oasis.common.registry.engine.query.QueryRow;
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import lombok.Builder;
 import lombok.Value;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +31,18 @@ public class QueryData {
     QueryMetadata metadata;
     QueryContext context;
 
+    /**
+     * Content digest carried with a cached result so it does not have to be
+     * recomputed on every hit. Null when the result was produced fresh.
+     */
+    String digest;
+
+    /**
+     * Expiry, as epoch milliseconds, of the cache entry this result was served
+     * from or stored in. Null when the result is not cached.
+     */
+    Long expiresAt;
+
     // SQL Building fields
     String sql;
     Map<String, Object> params;
@@ -76,6 +91,52 @@ public class QueryData {
         return true;
     }
 
+    /**
+     * Stable digest of the row content and total count, used as the HTTP entity
+     * tag. Rows are hashed without serializing them; attribute order inside a
+     * row does not affect the result, row order does. Arrays are hashed by
+     * content and null by a marker of its own, so neither collides with a
+     * string value.
+     */
+    public String contentDigest() {
+        if (digest != null) {
+            return digest;
+        }
+        return computeDigest(rows, getCount());
+    }
+
+    public static String computeDigest(List<QueryRow> rows, int count) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(count);
+        if (rows != null) {
+            hasher.putInt(rows.size());
+            for (QueryRow row : rows) {
+                long[] rowHash = new long[1];
+                row.forEach((key, value) -> {
+                    Hasher entry = Hashing.murmur3_128().newHasher()
+                            .putUnencodedChars(key)
+                            .putByte((byte) 0);
+                    putValue(entry, value);
+                    rowHash[0] += entry.hash().asLong();
+                });
+                hasher.putLong(rowHash[0]);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putValue(Hasher hasher, Object value) {
+        if (value == null) {
+            hasher.putByte((byte) 0);
+        } else if (value instanceof byte[] bytes) {
+            hasher.putByte((byte) 1).putInt(bytes.length).putBytes(bytes);
+        } else if (value.getClass().isArray()) {
+            hasher.putByte((byte) 2).putUnencodedChars(Arrays.deepToString(new Object[] { value }));
+        } else {
+            hasher.putByte((byte) 3).putUnencodedChars(String.valueOf(value));
+        }
+    }
+
     // ============= SQL RESULT METHODS =============
 
     public String getSql() {
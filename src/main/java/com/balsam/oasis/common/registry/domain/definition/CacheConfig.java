@@ -1,6 +1,7 @@
 package com.balsam.oasis.common.registry.domain.definition;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.function.Function;
 
 import lombok.Builder;
@@ -18,7 +19,11 @@ public class CacheConfig {
     @Builder.Default
     Duration ttl = Duration.ofMinutes(5);
 
-    Function<Object, String> keyGenerator;
+    /**
+     * Cache key from the request parameters; page, filters and sorting are
+     * added to it by the cache
+     */
+    Function<Map<String, Object>, String> keyGenerator;
 
     public boolean hasKeyGenerator() {
         return keyGenerator != null;
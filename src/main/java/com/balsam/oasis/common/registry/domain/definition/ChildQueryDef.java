@@ -0,0 +1,76 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+/**
+ * Immutable definition of a detail query attached to each parent row.
+ *
+ * <p>
+ * After a page of parent rows is read, the distinct values of
+ * {@code parentKey} are bound as a list to {@code keysParam} of the registered
+ * query {@code queryName}, which must use it in an IN-list, e.g.
+ * {@code WHERE e.department_id IN (:departmentIds)}. The child rows are grouped
+ * by {@code childKey} and set on each parent row under {@code name}, so a page
+ * of parents costs one extra statement instead of one per row.
+ * </p>
+ */
+public record ChildQueryDef(
+        String name,
+        String queryName,
+        String parentKey,
+        String childKey,
+        String keysParam) {
+    public static Builder name(String name) {
+        return new Builder().name(name);
+    }
+
+    /**
+     * Manual builder implementation for record
+     */
+    public static class Builder {
+        private String name;
+        private String queryName;
+        private String parentKey;
+        private String childKey;
+        private String keysParam;
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Registered name of the child query
+         */
+        public Builder query(String queryName) {
+            this.queryName = queryName;
+            return this;
+        }
+
+        /**
+         * Parent attribute holding the key
+         */
+        public Builder parentKey(String parentKey) {
+            this.parentKey = parentKey;
+            return this;
+        }
+
+        /**
+         * Child attribute referencing the parent key
+         */
+        public Builder childKey(String childKey) {
+            this.childKey = childKey;
+            return this;
+        }
+
+        /**
+         * Child query parameter the list of parent keys is bound to
+         */
+        public Builder keysParam(String keysParam) {
+            this.keysParam = keysParam;
+            return this;
+        }
+
+        public ChildQueryDef build() {
+            return new ChildQueryDef(name, queryName, parentKey, childKey, keysParam);
+        }
+    }
+}
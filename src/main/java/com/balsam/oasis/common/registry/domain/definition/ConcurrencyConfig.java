@@ -0,0 +1,22 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Bulkhead configuration for one query or PL/SQL definition: how many
+ * executions may hold a connection at once and how many may wait for a slot.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ConcurrencyConfig {
+    int maxConcurrency;
+
+    @Builder.Default
+    int maxQueued = 0;
+
+    @Builder.Default
+    Duration queueTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,22 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+/**
+ * Workload class of an execution, in priority order. Each lane has its own
+ * concurrency budget and queue; when connections are scarce, waiting
+ * executions of a higher-priority lane go first.
+ */
+public enum ExecutionLane {
+    /** Grid pages, lookups and typeahead: short and latency sensitive */
+    INTERACTIVE,
+    /** Background jobs and integrations */
+    BATCH,
+    /** Large extracts that may run for minutes */
+    EXPORT;
+
+    /**
+     * Whether this lane ranks below {@code other}
+     */
+    public boolean isLowerThan(ExecutionLane other) {
+        return ordinal() > other.ordinal();
+    }
+}
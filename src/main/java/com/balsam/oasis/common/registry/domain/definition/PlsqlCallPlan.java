@@ -0,0 +1,199 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Immutable call plan of a PL/SQL block, compiled once when the definition is
+ * built.
+ *
+ * <p>
+ * Every {@code :name} placeholder of the block becomes a {@link BindSlot} at
+ * its JDBC index, in the order it appears, carrying the
+ * {@link PlsqlParamBinder} resolved for its parameter. A parameter used twice
+ * gets two slots. Executing a block is then one indexed pass over {@link #getInSlots()}
+ * to bind, one over {@link #getOutSlots()} to register and collect, with no
+ * scanning of the block at call time.
+ * </p>
+ *
+ * <p>
+ * Placeholders of IN parameters with a {@code plsqlDefault} are compiled as
+ * {@code COALESCE(:name, default)}, so an omitted parameter is bound as NULL
+ * and the statement text, and with it the server-side cursor, is the same
+ * whether or not the parameter is supplied. Unlike {@code NVL}, COALESCE only
+ * evaluates the default, which may call a function, when the value is NULL.
+ * INOUT parameters cannot be wrapped; when one with a default is omitted, its
+ * placeholders are replaced by the default expression in a variant compiled
+ * on first use and kept per set of omitted parameters.
+ * </p>
+ */
+public final class PlsqlCallPlan {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile(":([a-zA-Z_]\\w*)");
+
+    private final String source;
+    private final String sql;
+    private final Map<String, PlsqlParamDef<?>> parameters;
+    private final ImmutableList<Placeholder> placeholders;
+    private final ImmutableList<BindSlot> inSlots;
+    private final ImmutableList<BindSlot> outSlots;
+    private final Map<Set<String>, PlsqlCallPlan> variants = new ConcurrentHashMap<>();
+
+    private PlsqlCallPlan(String source, String sql, Map<String, PlsqlParamDef<?>> parameters,
+            ImmutableList<Placeholder> placeholders) {
+        this.source = source;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.placeholders = placeholders;
+
+        ImmutableList.Builder<BindSlot> in = ImmutableList.builder();
+        ImmutableList.Builder<BindSlot> out = ImmutableList.builder();
+        for (int i = 0; i < placeholders.size(); i++) {
+            Placeholder placeholder = placeholders.get(i);
+            BindSlot slot = new BindSlot(i + 1, placeholder.param(), placeholder.binder());
+            if (slot.isIn()) {
+                in.add(slot);
+            }
+            if (slot.isOut()) {
+                out.add(slot);
+            }
+        }
+        this.inSlots = in.build();
+        this.outSlots = out.build();
+    }
+
+    /**
+     * Compile the block against its parameter definitions.
+     *
+     * @throws IllegalStateException if a placeholder has no parameter definition
+     */
+    public static PlsqlCallPlan compile(String sql, Map<String, PlsqlParamDef<?>> parameters) {
+        ImmutableList.Builder<Placeholder> placeholders = ImmutableList.builder();
+        Map<String, PlsqlParamBinder> binders = new HashMap<>();
+        StringBuilder executable = new StringBuilder(sql.length());
+        int position = 0;
+        Matcher matcher = PLACEHOLDER.matcher(sql);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            PlsqlParamDef<?> param = parameters.get(name);
+            if (param == null) {
+                throw new IllegalStateException("Parameter not found in definition: " + name);
+            }
+            PlsqlParamBinder binder = binders.computeIfAbsent(name, k -> PlsqlParamBinder.forParam(param));
+            placeholders.add(new Placeholder(param, binder, matcher.start(), matcher.end()));
+
+            executable.append(sql, position, matcher.start());
+            if (isDefaultedIn(param)) {
+                executable.append("COALESCE(").append(matcher.group()).append(", ")
+                        .append(param.plsqlDefault()).append(')');
+            } else {
+                executable.append(matcher.group());
+            }
+            position = matcher.end();
+        }
+        executable.append(sql, position, sql.length());
+        return new PlsqlCallPlan(sql, executable.toString(), parameters, placeholders.build());
+    }
+
+    /**
+     * Whether an omitted parameter needs no variant: IN parameters with a
+     * default are bound as NULL into their COALESCE.
+     */
+    public static boolean isDefaultedIn(PlsqlParamDef<?> param) {
+        return param.mode() == PlsqlParamDef.ParamMode.IN && param.hasPlsqlDefault();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * IN and INOUT slots, in JDBC index order
+     */
+    public ImmutableList<BindSlot> getInSlots() {
+        return inSlots;
+    }
+
+    /**
+     * OUT, INOUT and REF_CURSOR slots, in JDBC index order
+     */
+    public ImmutableList<BindSlot> getOutSlots() {
+        return outSlots;
+    }
+
+    public int getSlotCount() {
+        return placeholders.size();
+    }
+
+    /**
+     * The plan with the placeholders of {@code omitted} INOUT parameters
+     * replaced by their {@code plsqlDefault} expressions.
+     */
+    public PlsqlCallPlan withDefaults(Set<String> omitted) {
+        if (omitted.isEmpty()) {
+            return this;
+        }
+        return variants.computeIfAbsent(ImmutableSet.copyOf(omitted), this::rewrite);
+    }
+
+    private PlsqlCallPlan rewrite(Set<String> omitted) {
+        StringBuilder rewritten = new StringBuilder(source.length());
+        int position = 0;
+        for (Placeholder placeholder : placeholders) {
+            if (omitted.contains(placeholder.param().name())) {
+                rewritten.append(source, position, placeholder.start())
+                        .append(placeholder.param().plsqlDefault());
+                position = placeholder.end();
+            }
+        }
+        rewritten.append(source, position, source.length());
+        return compile(rewritten.toString(), parameters);
+    }
+
+    /**
+     * One bind position of the block, with the binder resolved for its
+     * parameter
+     */
+    public record BindSlot(int index, PlsqlParamDef<?> param, PlsqlParamBinder binder) {
+
+        public void bind(CallableStatement cs, Object value) throws SQLException {
+            binder.bind(cs, index, value);
+        }
+
+        public String name() {
+            return param.name();
+        }
+
+        public int sqlType() {
+            return param.sqlType();
+        }
+
+        public PlsqlParamDef.ParamMode mode() {
+            return param.mode();
+        }
+
+        public boolean isIn() {
+            return mode() == PlsqlParamDef.ParamMode.IN || mode() == PlsqlParamDef.ParamMode.INOUT;
+        }
+
+        public boolean isOut() {
+            return mode() == PlsqlParamDef.ParamMode.OUT || mode() == PlsqlParamDef.ParamMode.INOUT
+                    || mode() == PlsqlParamDef.ParamMode.REF_CURSOR;
+        }
+    }
+
+    /**
+     * A placeholder with its position in the source block
+     */
+    private record Placeholder(PlsqlParamDef<?> param, PlsqlParamBinder binder, int start, int end) {
+    }
+}
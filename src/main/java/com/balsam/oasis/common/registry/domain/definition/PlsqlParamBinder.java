@@ -0,0 +1,363 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+
+/**
+ * Binds the value of one PL/SQL parameter to a statement.
+ *
+ * <p>
+ * A binder is resolved once per parameter from its {@code sqlType()} and
+ * {@code type()} when the call plan is compiled, so binding a value is a
+ * single conversion and setter call. Date strings are parsed with one
+ * immutable formatter chosen from the shape of the string: {@code yyyy-MM-dd},
+ * a local date-time with {@code T} or a space before the time, or the same
+ * with a {@code Z} or offset suffix. Collection parameters are bound as one
+ * {@link java.sql.Array}, see {@link SqlArrays}.
+ * </p>
+ */
+@FunctionalInterface
+public interface PlsqlParamBinder {
+
+    void bind(CallableStatement cs, int index, Object value) throws SQLException;
+
+    static PlsqlParamBinder forParam(PlsqlParamDef<?> param) {
+        int sqlType = param.sqlType();
+        PlsqlParamBinder binder = switch (sqlType) {
+            case Types.DATE -> (cs, index, value) -> {
+                java.sql.Date date = Conversions.toSqlDate(value);
+                if (date != null) {
+                    cs.setDate(index, date);
+                } else {
+                    cs.setNull(index, Types.DATE);
+                }
+            };
+            case Types.TIMESTAMP -> (cs, index, value) -> {
+                Timestamp timestamp = Conversions.toTimestamp(value);
+                if (timestamp != null) {
+                    cs.setTimestamp(index, timestamp);
+                } else {
+                    cs.setNull(index, Types.TIMESTAMP);
+                }
+            };
+            case Types.VARCHAR, Types.CHAR -> (cs, index, value) -> cs.setString(index, value.toString());
+            case Types.INTEGER -> (cs, index, value) -> cs.setInt(index,
+                    Conversions.toNumber(param.name(), value).intValue());
+            case Types.BIGINT -> (cs, index, value) -> cs.setLong(index,
+                    Conversions.toNumber(param.name(), value).longValue());
+            case Types.NUMERIC, Types.DECIMAL -> (cs, index, value) -> cs.setBigDecimal(index,
+                    Conversions.toBigDecimal(param.name(), value));
+            case Types.BOOLEAN -> (cs, index, value) -> cs.setBoolean(index,
+                    value instanceof Boolean bool ? bool : Boolean.parseBoolean(value.toString()));
+            case Types.ARRAY -> {
+                SqlArrays arrays = SqlArrays.forParam(param);
+                yield (cs, index, value) -> cs.setArray(index, arrays.create(cs.getConnection(), value));
+            }
+            default -> {
+                Function<Object, Object> converter = Conversions.forType(param.name(), param.type());
+                yield sqlType == Types.NULL
+                        ? (cs, index, value) -> cs.setObject(index, converter.apply(value))
+                        : (cs, index, value) -> cs.setObject(index, converter.apply(value), sqlType);
+            }
+        };
+        String typeName = param.arrayType();
+        return (cs, index, value) -> {
+            if (value == null) {
+                if (typeName != null) {
+                    cs.setNull(index, sqlType, typeName);
+                } else {
+                    cs.setNull(index, sqlType);
+                }
+            } else {
+                binder.bind(cs, index, value);
+            }
+        };
+    }
+
+    /**
+     * Creates the {@link java.sql.Array} for a collection parameter.
+     *
+     * <p>
+     * On Oracle the array is created with
+     * {@code OracleConnection.createOracleArray(collectionType, elements)},
+     * looked up reflectively because the driver is a runtime-only dependency.
+     * Any other driver gets the standard {@code createArrayOf(elementType,
+     * elements)}, which embedded databases such as H2 support.
+     * </p>
+     */
+    final class SqlArrays {
+
+        private static final Class<?> ORACLE_CONNECTION;
+        private static final java.lang.reflect.Method CREATE_ORACLE_ARRAY;
+
+        static {
+            Class<?> connectionClass = null;
+            java.lang.reflect.Method method = null;
+            try {
+                connectionClass = Class.forName("oracle.jdbc.OracleConnection");
+                method = connectionClass.getMethod("createOracleArray", String.class, Object.class);
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                connectionClass = null;
+            }
+            ORACLE_CONNECTION = connectionClass;
+            CREATE_ORACLE_ARRAY = method;
+        }
+
+        private final String name;
+        private final String collectionType;
+        private final String elementTypeName;
+        private final Function<Object, Object> elementConverter;
+
+        private SqlArrays(String name, String collectionType, String elementTypeName,
+                Function<Object, Object> elementConverter) {
+            this.name = name;
+            this.collectionType = collectionType;
+            this.elementTypeName = elementTypeName;
+            this.elementConverter = elementConverter;
+        }
+
+        static SqlArrays forParam(PlsqlParamDef<?> param) {
+            Class<?> elementType = param.elementType() != null ? param.elementType() : Object.class;
+            return new SqlArrays(param.name(), param.arrayType(), elementTypeName(elementType),
+                    elementConverter(param.name(), elementType));
+        }
+
+        java.sql.Array create(java.sql.Connection con, Object value) throws SQLException {
+            Object[] elements = toElements(value);
+            if (ORACLE_CONNECTION != null && collectionType != null && con.isWrapperFor(ORACLE_CONNECTION)) {
+                try {
+                    return (java.sql.Array) CREATE_ORACLE_ARRAY.invoke(con.unwrap(ORACLE_CONNECTION),
+                            collectionType, elements);
+                } catch (java.lang.reflect.InvocationTargetException e) {
+                    if (e.getCause() instanceof SQLException sqlException) {
+                        throw sqlException;
+                    }
+                    throw new SQLException("Could not create " + collectionType + " for " + name, e.getCause());
+                } catch (IllegalAccessException e) {
+                    throw new SQLException("Could not create " + collectionType + " for " + name, e);
+                }
+            }
+            return con.createArrayOf(elementTypeName, elements);
+        }
+
+        private Object[] toElements(Object value) {
+            Object[] elements;
+            if (value instanceof java.util.Collection<?> collection) {
+                elements = collection.toArray();
+            } else if (value instanceof Object[] array) {
+                elements = array.clone();
+            } else if (value.getClass().isArray()) {
+                int length = java.lang.reflect.Array.getLength(value);
+                elements = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    elements[i] = java.lang.reflect.Array.get(value, i);
+                }
+            } else {
+                elements = new Object[] { value };
+            }
+            for (int i = 0; i < elements.length; i++) {
+                if (elements[i] != null) {
+                    elements[i] = elementConverter.apply(elements[i]);
+                }
+            }
+            return elements;
+        }
+
+        private static Function<Object, Object> elementConverter(String name, Class<?> elementType) {
+            if (elementType == Long.class) {
+                return value -> Conversions.toNumber(name, value).longValue();
+            }
+            if (elementType == BigDecimal.class || elementType == Number.class) {
+                return value -> Conversions.toBigDecimal(name, value);
+            }
+            if (elementType == LocalDate.class) {
+                return value -> value instanceof LocalDate ? value : Conversions.toSqlDate(value);
+            }
+            return Conversions.forType(name, elementType);
+        }
+
+        private static String elementTypeName(Class<?> elementType) {
+            if (elementType == Integer.class) {
+                return "INTEGER";
+            }
+            if (elementType == Long.class) {
+                return "BIGINT";
+            }
+            if (elementType == BigDecimal.class || elementType == Number.class) {
+                return "NUMERIC";
+            }
+            if (elementType == LocalDate.class) {
+                return "DATE";
+            }
+            if (java.util.Date.class.isAssignableFrom(elementType)) {
+                return "TIMESTAMP";
+            }
+            return "VARCHAR";
+        }
+    }
+
+    /**
+     * Value conversions shared by the binders
+     */
+    final class Conversions {
+
+        private static final Logger log = LoggerFactory.getLogger(PlsqlParamBinder.class);
+
+        private static final DateTimeFormatter LOCAL_DATE_TIME_SPACE = new DateTimeFormatterBuilder()
+                .append(DateTimeFormatter.ISO_LOCAL_DATE)
+                .appendLiteral(' ')
+                .append(DateTimeFormatter.ISO_LOCAL_TIME)
+                .toFormatter();
+
+        private static final DateTimeFormatter OFFSET_DATE_TIME_SPACE = new DateTimeFormatterBuilder()
+                .append(LOCAL_DATE_TIME_SPACE)
+                .appendOffsetId()
+                .toFormatter();
+
+        private Conversions() {
+        }
+
+        static Function<Object, Object> forType(String name, Class<?> type) {
+            if (type == null || type == Object.class) {
+                return Function.identity();
+            }
+            if (type == String.class) {
+                return Object::toString;
+            }
+            if (type == Integer.class) {
+                return value -> value instanceof Integer ? value : toNumber(name, value).intValue();
+            }
+            if (type == java.util.Date.class || type == java.sql.Date.class) {
+                return value -> value instanceof java.util.Date ? value : toTimestamp(value);
+            }
+            return Function.identity();
+        }
+
+        static Number toNumber(String name, Object value) {
+            if (value instanceof Number number) {
+                return number;
+            }
+            return toBigDecimal(name, value);
+        }
+
+        static BigDecimal toBigDecimal(String name, Object value) {
+            if (value instanceof BigDecimal decimal) {
+                return decimal;
+            }
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            if (value instanceof Number number) {
+                return new BigDecimal(number.toString());
+            }
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new QueryException(QueryException.ErrorCode.PARAMETER_ERROR,
+                        "Invalid number for parameter '" + name + "': " + value);
+            }
+        }
+
+        static java.sql.Date toSqlDate(Object value) {
+            if (value instanceof java.sql.Date date) {
+                return date;
+            }
+            if (value instanceof LocalDate localDate) {
+                return java.sql.Date.valueOf(localDate);
+            }
+            if (value instanceof String text && text.length() == 10) {
+                LocalDate localDate = parse(text, DateTimeFormatter.ISO_LOCAL_DATE, LocalDate::from);
+                return localDate != null ? java.sql.Date.valueOf(localDate) : null;
+            }
+            Timestamp timestamp = toTimestamp(value);
+            return timestamp != null ? new java.sql.Date(timestamp.getTime()) : null;
+        }
+
+        static Timestamp toTimestamp(Object value) {
+            if (value instanceof Timestamp timestamp) {
+                return timestamp;
+            }
+            if (value instanceof java.util.Date date) {
+                return new Timestamp(date.getTime());
+            }
+            if (value instanceof LocalDateTime localDateTime) {
+                return Timestamp.valueOf(localDateTime);
+            }
+            if (value instanceof LocalDate localDate) {
+                return Timestamp.valueOf(localDate.atStartOfDay());
+            }
+            if (value instanceof Instant instant) {
+                return Timestamp.from(instant);
+            }
+            if (value instanceof OffsetDateTime offsetDateTime) {
+                return Timestamp.from(offsetDateTime.toInstant());
+            }
+            if (value instanceof ZonedDateTime zonedDateTime) {
+                return Timestamp.from(zonedDateTime.toInstant());
+            }
+            if (value instanceof String text) {
+                return parseTimestamp(text.trim());
+            }
+            log.warn("Could not convert value '{}' to Date, returning null", value);
+            return null;
+        }
+
+        private static Timestamp parseTimestamp(String text) {
+            if (text.length() == 10) {
+                LocalDate date = parse(text, DateTimeFormatter.ISO_LOCAL_DATE, LocalDate::from);
+                return date != null ? Timestamp.valueOf(date.atStartOfDay()) : null;
+            }
+            if (text.length() > 10 && (text.charAt(10) == 'T' || text.charAt(10) == ' ')) {
+                boolean space = text.charAt(10) == ' ';
+                if (hasOffset(text)) {
+                    OffsetDateTime dateTime = parse(text,
+                            space ? OFFSET_DATE_TIME_SPACE : DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+                            OffsetDateTime::from);
+                    return dateTime != null ? Timestamp.from(dateTime.toInstant()) : null;
+                }
+                LocalDateTime dateTime = parse(text,
+                        space ? LOCAL_DATE_TIME_SPACE : DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+                        LocalDateTime::from);
+                return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+            }
+            log.warn("Could not parse date string: {}", text);
+            return null;
+        }
+
+        /**
+         * A {@code Z}, {@code +hh:mm} or {@code -hh:mm} after the time part
+         */
+        private static boolean hasOffset(String text) {
+            char last = text.charAt(text.length() - 1);
+            return last == 'Z' || last == 'z' || text.indexOf('+', 11) >= 0 || text.indexOf('-', 11) >= 0;
+        }
+
+        private static <T> T parse(String text, DateTimeFormatter formatter,
+                TemporalQuery<T> query) {
+            try {
+                return formatter.parse(text, query);
+            } catch (DateTimeParseException e) {
+                log.warn("Could not parse date string: {}", text);
+                return null;
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.balsam.oasis.common.registry.domain.definition;
 
+import java.sql.Types;
+import java.util.List;
+
 import lombok.Builder;
+import lombok.Singular;
 
 @Builder
 public record PlsqlParamDef<T>(
@@ -10,18 +14,33 @@ public record PlsqlParamDef<T>(
         boolean required,
         ParamMode mode,
         String plsqlDefault,
-        int sqlType) {
+        int sqlType,
+        // REF_CURSOR only: columns projected into each row, and rows fetched per round trip
+        @Singular List<AttributeDef<?>> attributes,
+        Integer fetchSize,
+        // ARRAY only: SQL collection type (e.g. NUMBER_TABLE) and Java type of its elements
+        String arrayType,
+        Class<?> elementType) {
 
     public enum ParamMode {
-        IN,      // Input only (default)
-        OUT,     // Output only
-        INOUT    // Input and output
+        IN,         // Input only (default)
+        OUT,        // Output only
+        INOUT,      // Input and output
+        REF_CURSOR  // Output cursor, returned as a list of rows
     }
 
     public ParamMode mode() {
         return mode != null ? mode : ParamMode.IN;
     }
 
+    public int sqlType() {
+        return sqlType == 0 && mode == ParamMode.REF_CURSOR ? Types.REF_CURSOR : sqlType;
+    }
+
+    public boolean isCursor() {
+        return mode == ParamMode.REF_CURSOR;
+    }
+
     public boolean hasDefaultValue() {
         return defaultValue != null;
     }
@@ -53,6 +72,36 @@ public record PlsqlParamDef<T>(
                 .required(false);  // OUT params are never required as input
     }
 
+    /**
+     * A REF CURSOR OUT parameter. Rows are mapped through its attributes the
+     * same way query rows are; without attributes every column is returned.
+     */
+    @SuppressWarnings("rawtypes")
+    public static PlsqlParamDefBuilder<List> cursor(String name) {
+        return PlsqlParamDef.<List>builder()
+                .name(name)
+                .type(List.class)
+                .mode(ParamMode.REF_CURSOR)
+                .sqlType(Types.REF_CURSOR)
+                .required(false);
+    }
+
+    /**
+     * An IN parameter bound as one SQL collection, e.g. a {@code TABLE OF NUMBER}
+     * declared as {@code collectionType}. Accepts a list or array of
+     * {@code elementType} values.
+     */
+    @SuppressWarnings("rawtypes")
+    public static PlsqlParamDefBuilder<List> array(String name, String collectionType, Class<?> elementType) {
+        return PlsqlParamDef.<List>builder()
+                .name(name)
+                .type(List.class)
+                .mode(ParamMode.IN)
+                .sqlType(Types.ARRAY)
+                .arrayType(collectionType)
+                .elementType(elementType);
+    }
+
     public static <T> PlsqlParamDefBuilder<T> inout(String name, Class<T> type) {
         return PlsqlParamDef.<T>builder()
                 .name(name)
@@ -16,7 +16,9 @@ public class QueryException extends RuntimeException {
         DEFINITION_ERROR("QRY005", "Query definition error"),
         VALIDATION_ERROR("QRY006", "Validation error"),
         SQL_ERROR("QRY007", "SQL error"),
-        PARAMETER_ERROR("QRY008", "Parameter error");
+        PARAMETER_ERROR("QRY008", "Parameter error"),
+        CONCURRENCY_LIMIT_EXCEEDED("QRY009", "Concurrency limit exceeded"),
+        OVERLOADED("QRY010", "Database overloaded");
 
         private final String code;
         private final String description;
@@ -0,0 +1,142 @@
+package com.balsam.oasis.common.registry.domain.execution;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+
+/**
+ * Deadline and cancellation handle for one execution.
+ *
+ * <p>
+ * The executors apply the remaining time to each statement they run through
+ * {@link Statement#setQueryTimeout(int)} and register the running statement
+ * here, so {@link #cancel()} can stop it from another thread, for example when
+ * the client disconnects. Nothing is shared between executions: the JDBC
+ * template itself is never reconfigured.
+ * </p>
+ */
+public final class ExecutionDeadline {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionDeadline.class);
+
+    private final long deadlineNanos;
+    private volatile Statement statement;
+    private volatile boolean cancelled;
+    private final List<ExecutionDeadline> forks = new CopyOnWriteArrayList<>();
+
+    private ExecutionDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * A deadline {@code timeout} from now.
+     */
+    public static ExecutionDeadline after(Duration timeout) {
+        return new ExecutionDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * No deadline; the handle can still be used to cancel.
+     */
+    public static ExecutionDeadline none() {
+        return new ExecutionDeadline(Long.MAX_VALUE);
+    }
+
+    /**
+     * A new handle with the same deadline, for work running in parallel under
+     * one request. Each handle tracks its own statement; cancelling this handle
+     * cancels all forks.
+     */
+    public ExecutionDeadline fork() {
+        ExecutionDeadline forked = new ExecutionDeadline(deadlineNanos);
+        forks.add(forked);
+        if (cancelled) {
+            forked.cancel();
+        }
+        return forked;
+    }
+
+    public boolean hasDeadline() {
+        return deadlineNanos != Long.MAX_VALUE;
+    }
+
+    public long remainingMillis() {
+        if (!hasDeadline()) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return cancelled || (hasDeadline() && deadlineNanos - System.nanoTime() <= 0);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Fail fast with {@link QueryException.ErrorCode#TIMEOUT} if the deadline
+     * has already passed or the execution was cancelled.
+     */
+    public void check(String name) {
+        if (cancelled) {
+            throw new QueryException(name, QueryException.ErrorCode.TIMEOUT, "Execution cancelled");
+        }
+        if (isExpired()) {
+            throw new QueryException(name, QueryException.ErrorCode.TIMEOUT, "Request deadline exceeded");
+        }
+    }
+
+    /**
+     * Apply the effective timeout to a statement and register it for
+     * cancellation. The effective timeout is the smaller of the configured
+     * timeout (seconds, null for none) and the time left before the deadline.
+     */
+    public void attach(Statement statement, Integer configuredSeconds, String name) throws SQLException {
+        check(name);
+        int seconds = configuredSeconds != null && configuredSeconds > 0 ? configuredSeconds : 0;
+        if (hasDeadline()) {
+            int remaining = (int) Math.max(1, (remainingMillis() + 999) / 1000);
+            seconds = seconds > 0 ? Math.min(seconds, remaining) : remaining;
+        }
+        if (seconds > 0) {
+            statement.setQueryTimeout(seconds);
+        }
+        this.statement = statement;
+        if (cancelled) {
+            statement.cancel();
+        }
+    }
+
+    public void detach(Statement statement) {
+        if (this.statement == statement) {
+            this.statement = null;
+        }
+    }
+
+    /**
+     * Cancel the execution. A statement that is currently running is cancelled
+     * on the database; later statements fail before they are sent.
+     */
+    public void cancel() {
+        cancelled = true;
+        forks.forEach(ExecutionDeadline::cancel);
+        Statement running = statement;
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                log.debug("Failed to cancel running statement: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.balsam.oasis.common.registry.domain.execution;
+
+import java.util.Map;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+
+/**
+ * Outcome of one parameter set of a batched PL/SQL execution, at the position
+ * of that set in the request. Exactly one of {@code outputs} and
+ * {@code error} is set.
+ */
+public record PlsqlBatchResult(int index, Map<String, Object> outputs, QueryException error) {
+
+    public static PlsqlBatchResult success(int index, Map<String, Object> outputs) {
+        return new PlsqlBatchResult(index, outputs, null);
+    }
+
+    public static PlsqlBatchResult failure(int index, QueryException error) {
+        return new PlsqlBatchResult(index, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
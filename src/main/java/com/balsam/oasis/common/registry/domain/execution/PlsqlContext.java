@@ -2,6 +2,7 @@ package com.balsam.oasis.common.registry.domain.execution;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
 
@@ -16,6 +17,15 @@ public class PlsqlContext {
     private Map<String, Object> params = new HashMap<>();
     @Builder.Default
     private boolean includeMetadata = true;
+    @Builder.Default
+    private ExecutionDeadline deadline = ExecutionDeadline.none();
+    /**
+     * Consumers receiving the rows of REF CURSOR parameters as they are
+     * fetched, by parameter name. A cursor with a consumer outputs its row
+     * count instead of its rows.
+     */
+    @Builder.Default
+    private Map<String, Consumer<Map<String, Object>>> cursorConsumers = new HashMap<>();
 
     public void addParam(String name, Object value) {
         params.put(name, value);
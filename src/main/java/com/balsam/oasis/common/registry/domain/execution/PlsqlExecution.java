@@ -26,6 +26,24 @@ public class PlsqlExecution {
         return this;
     }
 
+    public PlsqlExecution withDeadline(ExecutionDeadline deadline) {
+        context.setDeadline(deadline);
+        return this;
+    }
+
+    public PlsqlExecution withTimeout(java.time.Duration timeout) {
+        return withDeadline(ExecutionDeadline.after(timeout));
+    }
+
+    /**
+     * Stream the rows of REF CURSOR parameter {@code name} to {@code consumer}
+     * instead of collecting them into the outputs
+     */
+    public PlsqlExecution withCursorConsumer(String name, java.util.function.Consumer<Map<String, Object>> consumer) {
+        context.getCursorConsumers().put(name, consumer);
+        return this;
+    }
+
     public PlsqlExecution includeMetadata(boolean include) {
         context.setIncludeMetadata(include);
         return this;
@@ -35,7 +53,13 @@ public class PlsqlExecution {
         return executor.doExecute(context);
     }
 
+    // Async execution on the configured query executor (never the common pool)
     public java.util.concurrent.CompletableFuture<Map<String, Object>> executeAsync() {
-        return java.util.concurrent.CompletableFuture.supplyAsync(this::execute);
+        return executeAsync(executor.getAsyncExecutor());
+    }
+
+    public java.util.concurrent.CompletableFuture<Map<String, Object>> executeAsync(
+            java.util.concurrent.Executor asyncExecutor) {
+        return java.util.concurrent.CompletableFuture.supplyAsync(this::execute, asyncExecutor);
     }
 }
\ No newline at end of file
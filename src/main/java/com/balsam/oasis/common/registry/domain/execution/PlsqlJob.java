@@ -0,0 +1,132 @@
+package com.balsam.oasis.common.registry.domain.execution;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+
+/**
+ * A PL/SQL execution submitted to run in the background. The job moves from
+ * QUEUED to RUNNING to one of the terminal states; {@code outputs} is set on
+ * success and {@code error} on failure or cancellation.
+ */
+public final class PlsqlJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isDone() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String name;
+    private final ExecutionDeadline deadline;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<PlsqlJob> completion = new CompletableFuture<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Map<String, Object> outputs;
+    private volatile QueryException error;
+
+    public PlsqlJob(String id, String name, ExecutionDeadline deadline) {
+        this.id = id;
+        this.name = name;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Move a queued job to RUNNING. False if it was cancelled while queued.
+     */
+    public synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    public synchronized void succeed(Map<String, Object> outputs) {
+        if (!status.isDone()) {
+            this.outputs = outputs;
+            finish(Status.SUCCEEDED);
+        }
+    }
+
+    public synchronized void fail(QueryException error) {
+        if (!status.isDone()) {
+            this.error = error;
+            finish(deadline.isCancelled() ? Status.CANCELLED : Status.FAILED);
+        }
+    }
+
+    /**
+     * Cancel the job. A queued job never starts; a running one has its
+     * statement cancelled and ends as CANCELLED when the execution returns.
+     */
+    public synchronized void cancel() {
+        deadline.cancel();
+        if (status == Status.QUEUED) {
+            error = new QueryException(name, QueryException.ErrorCode.TIMEOUT, "Job was cancelled");
+            finish(Status.CANCELLED);
+        }
+    }
+
+    private void finish(Status terminal) {
+        status = terminal;
+        completedAt = Instant.now();
+        completion.complete(this);
+    }
+
+    /**
+     * Completes with this job once it reaches a terminal state
+     */
+    public CompletableFuture<PlsqlJob> completion() {
+        return completion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExecutionDeadline getDeadline() {
+        return deadline;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public Map<String, Object> getOutputs() {
+        return outputs;
+    }
+
+    public QueryException getError() {
+        return error;
+    }
+}
@@ -0,0 +1,23 @@
+package com.balsam.oasis.common.registry.domain.execution;
+
+import java.util.Map;
+
+/**
+ * One block invocation of a PL/SQL workflow.
+ *
+ * <p>
+ * {@code alias} names the step's outputs for later steps and in the result;
+ * it defaults to the block name. {@code inputs} maps a parameter of this step
+ * to an output of an earlier step as {@code alias.output}; mapped values
+ * replace the same key in {@code params}.
+ * </p>
+ */
+public record PlsqlWorkflowStep(String name, String alias, Map<String, Object> params,
+        Map<String, String> inputs) {
+
+    public PlsqlWorkflowStep {
+        alias = alias != null && !alias.isBlank() ? alias : name;
+        params = params != null ? params : Map.of();
+        inputs = inputs != null ? inputs : Map.of();
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
 import com.balsam.oasis.common.registry.domain.common.Pagination;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
 import com.balsam.oasis.common.registry.domain.definition.FilterOp;
 import com.balsam.oasis.common.registry.domain.definition.SortDir;
 
@@ -39,6 +40,18 @@ public class QueryContext {
     @Builder.Default
     private List<SortSpec> sorts = new ArrayList<>();
 
+    /**
+     * Deadline and cancellation handle for this execution
+     */
+    @Builder.Default
+    private ExecutionDeadline deadline = ExecutionDeadline.none();
+
+    /**
+     * Lane requested for this execution. Null, or a lane ranking above the
+     * definition's, means the definition's lane is used.
+     */
+    private ExecutionLane lane;
+
 
     @Data
     @Builder
@@ -66,6 +79,11 @@ public class QueryContext {
     }
 
     // Helper methods
+    public ExecutionLane getEffectiveLane() {
+        ExecutionLane defined = definition.getLane();
+        return lane != null && lane.isLowerThan(defined) ? lane : defined;
+    }
+
     public void addParam(String name, Object value) {
         params.put(name, value);
     }
@@ -161,6 +161,22 @@ public class QueryExecution {
         return this;
     }
 
+    // Deadline and cancellation
+    public QueryExecution withDeadline(ExecutionDeadline deadline) {
+        context.setDeadline(deadline);
+        return this;
+    }
+
+    public QueryExecution withTimeout(java.time.Duration timeout) {
+        return withDeadline(ExecutionDeadline.after(timeout));
+    }
+
+    // Workload lane; can only move the execution below the definition's lane
+    public QueryExecution inLane(com.balsam.oasis.common.registry.domain.definition.ExecutionLane lane) {
+        context.setLane(lane);
+        return this;
+    }
+
     // Validation
     public QueryExecution validate() {
         List<String> violations = new ArrayList<>();
@@ -282,13 +298,17 @@ public class QueryExecution {
         return result.getRows().get(0);
     }
 
-    // Async execution
+    // Async execution on the configured query executor (never the common pool)
     public java.util.concurrent.CompletableFuture<QueryData> executeAsync() {
-        return java.util.concurrent.CompletableFuture.supplyAsync(this::execute);
+        return executeAsync(executor.getAsyncExecutor());
+    }
+
+    public java.util.concurrent.CompletableFuture<QueryData> executeAsync(java.util.concurrent.Executor asyncExecutor) {
+        return java.util.concurrent.CompletableFuture.supplyAsync(this::execute, asyncExecutor);
     }
 
     // Async execution for single object
     public java.util.concurrent.CompletableFuture<Object> executeSingleAsync() {
-        return java.util.concurrent.CompletableFuture.supplyAsync(this::executeSingle);
+        return java.util.concurrent.CompletableFuture.supplyAsync(this::executeSingle, executor.getAsyncExecutor());
     }
 }
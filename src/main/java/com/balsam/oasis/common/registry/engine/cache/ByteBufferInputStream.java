@@ -0,0 +1,61 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads sequentially across one or more byte buffers without copying them
+ * onto the heap first. Used to decode mapped snapshot files and off-heap slabs.
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final List<ByteBuffer> buffers;
+    private int current;
+
+    ByteBufferInputStream(List<ByteBuffer> buffers) {
+        this.buffers = buffers;
+    }
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this(List.of(buffer));
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int total = 0;
+        while (total < length) {
+            ByteBuffer buffer = currentBuffer();
+            if (buffer == null) {
+                break;
+            }
+            int chunk = Math.min(length - total, buffer.remaining());
+            buffer.get(target, offset + total, chunk);
+            total += chunk;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    private ByteBuffer currentBuffer() {
+        while (current < buffers.size()) {
+            ByteBuffer buffer = buffers.get(current);
+            if (buffer.hasRemaining()) {
+                return buffer;
+            }
+            current++;
+        }
+        return null;
+    }
+}
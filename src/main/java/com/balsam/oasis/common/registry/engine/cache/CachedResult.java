@@ -0,0 +1,31 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.util.List;
+
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+
+/**
+ * A cached query result: the fully processed rows plus what is needed to
+ * rebuild the response without touching the database.
+ *
+ * @param rows              rows after row and post processing
+ * @param totalCount        total count for paginated queries, null otherwise
+ * @param digest            content digest used as the HTTP entity tag
+ * @param definitionVersion version of the definition that produced the rows
+ * @param expiresAt         expiry as epoch milliseconds
+ */
+public record CachedResult(
+        List<QueryRow> rows,
+        Integer totalCount,
+        String digest,
+        String definitionVersion,
+        long expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    public boolean isValidFor(String version) {
+        return !isExpired() && definitionVersion.equals(version);
+    }
+}
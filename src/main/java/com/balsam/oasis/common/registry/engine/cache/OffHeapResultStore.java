@@ -0,0 +1,299 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Off-heap tier of the result cache for large results.
+ *
+ * <p>
+ * Rows are encoded with {@link RowCodec} and copied into fixed-size direct
+ * {@link ByteBuffer} slabs taken from a bounded pool. An entry owns a chain of
+ * slabs; evicting it returns them to the pool, so direct memory is allocated
+ * once up to {@code maxBytes} and reused rather than left to the garbage
+ * collector. The index is kept in access order and the least recently used
+ * entries are evicted when slabs run out.
+ * </p>
+ *
+ * <p>
+ * A read pins its entry under the lock and decodes the rows straight from
+ * read-only views of the slabs after the lock is released; the encoded bytes
+ * are never copied onto the heap, and readers only hold the lock for the
+ * lookup. A pinned entry that is evicted or replaced keeps its slabs until
+ * its last reader unpins it. The decoded rows are short-lived young-generation
+ * garbage instead of long-lived old-generation objects.
+ * </p>
+ */
+public class OffHeapResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapResultStore.class);
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final Deque<ByteBuffer> freeSlabs = new ArrayDeque<>();
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private int allocatedSlabs;
+
+    public OffHeapResultStore(long maxBytes, int slabSize) {
+        if (slabSize <= 0 || maxBytes < slabSize) {
+            throw new IllegalArgumentException("Off-heap cache needs maxBytes >= slabSize > 0");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxBytes / slabSize);
+    }
+
+    /**
+     * Store a result, replacing any entry under the key.
+     *
+     * @return false if the result was not stored because it could not be
+     *         encoded, exceeds the capacity or no slab could be freed
+     */
+    public boolean put(String key, CachedResult result) {
+        byte[] encoded;
+        try {
+            ByteArrayDataOutput out = ByteStreams.newDataOutput();
+            RowCodec.writeRows(out, result.rows());
+            encoded = out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to encode result for off-heap cache: {}", e.getMessage());
+            invalidate(key);
+            return false;
+        }
+
+        int slabsNeeded = (encoded.length + slabSize - 1) / slabSize;
+        if (slabsNeeded > maxSlabs) {
+            log.debug("Result of {} bytes exceeds the off-heap cache capacity, not cached", encoded.length);
+            invalidate(key);
+            return false;
+        }
+
+        lock.lock();
+        try {
+            Entry previous = index.remove(key);
+            if (previous != null) {
+                release(previous);
+            }
+
+            List<ByteBuffer> slabs = new ArrayList<>(slabsNeeded);
+            while (slabs.size() < slabsNeeded) {
+                ByteBuffer slab = takeSlab();
+                if (slab == null) {
+                    break;
+                }
+                slabs.add(slab);
+            }
+            if (slabs.size() < slabsNeeded) {
+                slabs.forEach(this::returnSlab);
+                return false;
+            }
+
+            int offset = 0;
+            for (ByteBuffer slab : slabs) {
+                int chunk = Math.min(slabSize, encoded.length - offset);
+                slab.clear();
+                slab.put(encoded, offset, chunk);
+                slab.flip();
+                offset += chunk;
+            }
+
+            index.put(key, new Entry(slabs, result.totalCount(),
+                    result.digest(), result.definitionVersion(), result.expiresAt()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CachedResult get(String key, String definitionVersion, QueryContext context) {
+        Entry entry;
+        List<ByteBuffer> views;
+        lock.lock();
+        try {
+            entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()
+                    || !entry.definitionVersion.equals(definitionVersion)) {
+                index.remove(key);
+                release(entry);
+                return null;
+            }
+            entry.pins++;
+            views = new ArrayList<>(entry.slabs.size());
+            for (ByteBuffer slab : entry.slabs) {
+                views.add(slab.asReadOnlyBuffer());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        boolean corrupt = false;
+        try {
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(views));
+            return new CachedResult(RowCodec.readRows(in, context), entry.totalCount, entry.digest,
+                    entry.definitionVersion, entry.expiresAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to decode off-heap cached result: {}", e.getMessage());
+            corrupt = true;
+            return null;
+        } finally {
+            unpin(key, entry, corrupt);
+        }
+    }
+
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            Entry entry = index.remove(key);
+            if (entry != null) {
+                release(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateByPrefix(String prefix) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> next = iterator.next();
+                if (next.getKey().startsWith(prefix)) {
+                    release(next.getValue());
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            index.values().forEach(this::release);
+            index.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return (long) (allocatedSlabs - freeSlabs.size()) * slabSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take a free slab, allocating a new one while under budget and evicting
+     * the least recently used entries otherwise. Evicted entries that are
+     * being read free their slabs only later. Must hold the lock.
+     */
+    private ByteBuffer takeSlab() {
+        ByteBuffer slab = freeSlabs.poll();
+        if (slab != null) {
+            return slab;
+        }
+        if (allocatedSlabs < maxSlabs) {
+            allocatedSlabs++;
+            return ByteBuffer.allocateDirect(slabSize);
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+        while (freeSlabs.isEmpty() && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            release(evicted);
+        }
+        return freeSlabs.poll();
+    }
+
+    /**
+     * Return an entry's slabs to the pool, or defer that to its last reader.
+     * Must hold the lock.
+     */
+    private void release(Entry entry) {
+        if (entry.pins > 0) {
+            entry.retired = true;
+        } else {
+            entry.slabs.forEach(this::returnSlab);
+        }
+    }
+
+    /**
+     * Release a reader's pin, dropping the entry from the index first when it
+     * could not be decoded.
+     */
+    private void unpin(String key, Entry entry, boolean corrupt) {
+        lock.lock();
+        try {
+            if (corrupt && index.remove(key, entry)) {
+                entry.retired = true;
+            }
+            entry.pins--;
+            if (entry.pins == 0 && entry.retired) {
+                entry.slabs.forEach(this::returnSlab);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void returnSlab(ByteBuffer slab) {
+        slab.clear();
+        freeSlabs.push(slab);
+    }
+
+    /**
+     * An indexed result. {@code pins} and {@code retired} are guarded by the
+     * store's lock.
+     */
+    private static final class Entry {
+        private final List<ByteBuffer> slabs;
+        private final Integer totalCount;
+        private final String digest;
+        private final String definitionVersion;
+        private final long expiresAt;
+        private int pins;
+        private boolean retired;
+
+        private Entry(List<ByteBuffer> slabs, Integer totalCount, String digest, String definitionVersion,
+                long expiresAt) {
+            this.slabs = slabs;
+            this.totalCount = totalCount;
+            this.digest = digest;
+            this.definitionVersion = definitionVersion;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.Pagination;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.CacheConfig;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Result cache for definitions with caching enabled.
+ *
+ * <p>
+ * The first tier is an on-heap Guava cache. When an {@link OffHeapResultStore}
+ * is configured, results with more than {@code offHeapMinRows} rows are kept
+ * there instead, encoded in direct memory, so large results do not inflate the
+ * old generation. When a {@link ResultSnapshotStore}
+ * is configured, every stored result is also persisted to disk and heap misses
+ * fall back to the snapshot, so warm results survive a restart. Entries are
+ * validated against the definition version and the TTL from
+ * {@link CacheConfig} on every hit.
+ * </p>
+ */
+public class QueryResultCache implements AutoCloseable {
+
+    private final Cache<String, CachedResult> heap;
+    private final ResultSnapshotStore snapshots;
+    private final OffHeapResultStore offHeap;
+    private final int offHeapMinRows;
+
+    public QueryResultCache(long maximumSize, ResultSnapshotStore snapshots) {
+        this(maximumSize, snapshots, null, Integer.MAX_VALUE);
+    }
+
+    public QueryResultCache(long maximumSize, ResultSnapshotStore snapshots,
+            OffHeapResultStore offHeap, int offHeapMinRows) {
+        this.heap = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        this.snapshots = snapshots;
+        this.offHeap = offHeap;
+        this.offHeapMinRows = offHeapMinRows;
+    }
+
+    /**
+     * Build the cache key for an execution. By default the final SQL and its
+     * bind values are used, which already include criteria, filters, sorting
+     * and pagination. A key generator configured on the definition receives the
+     * request parameters instead, and its key is combined with the page, the
+     * filters and the sort order, so a generator that only looks at parameters
+     * cannot make different pages or views of one query collide.
+     */
+    public String key(QueryContext context, String sql, Map<String, Object> params) {
+        QueryDefinitionBuilder definition = context.getDefinition();
+        CacheConfig cacheConfig = definition.getCacheConfig();
+        String prefix = definition.getName() + '\n' + context.isIncludeMetadata() + '\n';
+        if (cacheConfig.hasKeyGenerator()) {
+            Pagination pagination = context.getPagination();
+            return prefix + cacheConfig.getKeyGenerator().apply(context.getParams()) + '\n'
+                    + (pagination != null ? pagination.getStart() + ":" + pagination.getEnd() : "") + '\n'
+                    + new TreeMap<>(context.getFilters()).values() + '\n'
+                    + context.getSorts();
+        }
+
+        Map<String, Object> sortedParams = new TreeMap<>();
+        params.forEach((name, value) -> {
+            if (value != null) {
+                sortedParams.put(name, value);
+            }
+        });
+        return prefix + sql + '\n' + sortedParams;
+    }
+
+    public CachedResult get(QueryDefinitionBuilder definition, String key, QueryContext context) {
+        CachedResult cached = heap.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isValidFor(definition.getVersion())) {
+                return cached;
+            }
+            heap.invalidate(key);
+        }
+
+        if (offHeap != null) {
+            cached = offHeap.get(key, definition.getVersion(), context);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        if (snapshots != null) {
+            cached = snapshots.load(key, definition.getVersion(), context);
+            if (cached != null) {
+                keep(key, cached);
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    public CachedResult put(QueryDefinitionBuilder definition, String key, QueryData result, Integer totalCount) {
+        long expiresAt = System.currentTimeMillis() + definition.getCacheConfig().getTtl().toMillis();
+        CachedResult cached = new CachedResult(
+                ImmutableList.copyOf(result.getRows()),
+                totalCount,
+                result.contentDigest(),
+                definition.getVersion(),
+                expiresAt);
+
+        keep(key, cached);
+        if (snapshots != null) {
+            snapshots.store(key, definition.getName(), cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Keep a result in the off-heap tier when it is large enough, and on the
+     * heap otherwise or when the off-heap tier cannot take it
+     */
+    private void keep(String key, CachedResult cached) {
+        if (offHeap != null && cached.rows().size() > offHeapMinRows && offHeap.put(key, cached)) {
+            heap.invalidate(key);
+        } else {
+            heap.put(key, cached);
+        }
+    }
+
+    public void invalidateAll() {
+        heap.invalidateAll();
+        if (offHeap != null) {
+            offHeap.invalidateAll();
+        }
+        if (snapshots != null) {
+            snapshots.clear();
+        }
+    }
+
+    public long size() {
+        return heap.size() + (offHeap != null ? offHeap.size() : 0);
+    }
+
+    @Override
+    public void close() {
+        if (snapshots != null) {
+            snapshots.close();
+        }
+    }
+}
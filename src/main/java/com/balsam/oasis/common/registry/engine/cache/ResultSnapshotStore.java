@@ -0,0 +1,228 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent tier of the result cache.
+ *
+ * <p>
+ * Each cached result is written to its own segment file under the configured
+ * directory so a restarted instance can serve warm results instead of sending
+ * its first requests to the database. Segments are read through a read-only
+ * memory mapping and decoded with {@link RowCodec}.
+ * </p>
+ *
+ * <p>
+ * At startup the directory is scanned on a background thread: only segment
+ * headers are read and expired or unreadable segments are deleted. Rows are
+ * decoded lazily on the first lookup of a key and validated against the
+ * current definition version and TTL. Writes are asynchronous and atomic
+ * (temp file + rename), so request threads never wait for the disk.
+ * </p>
+ */
+public class ResultSnapshotStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultSnapshotStore.class);
+
+    private static final int MAGIC = 0x51525331; // "QRS1"
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final ExecutorService io;
+    private final Set<String> index = ConcurrentHashMap.newKeySet();
+    private volatile boolean indexed;
+
+    public ResultSnapshotStore(Path directory) {
+        this.directory = directory;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create cache snapshot directory: " + directory, e);
+        }
+        io.submit(this::scan);
+    }
+
+    /**
+     * Load a snapshot for the key if one exists and is still valid for the given
+     * definition version. Invalid snapshots are removed.
+     */
+    public CachedResult load(String key, String definitionVersion, QueryContext context) {
+        String fileName = fileName(key);
+        if (indexed && !index.contains(fileName)) {
+            return null;
+        }
+        Path file = directory.resolve(fileName);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(mapped));
+
+            Header header = readHeader(in);
+            if (header == null || !header.key().equals(key)) {
+                delete(file);
+                return null;
+            }
+            if (header.expiresAt() <= System.currentTimeMillis()
+                    || !header.definitionVersion().equals(definitionVersion)) {
+                log.debug("Discarding stale cache snapshot for query '{}'", header.definitionName());
+                delete(file);
+                return null;
+            }
+
+            int totalCount = in.readInt();
+            String digest = RowCodec.readString(in);
+            var rows = RowCodec.readRows(in, context);
+
+            log.debug("Loaded {} rows for query '{}' from cache snapshot", rows.size(), header.definitionName());
+            return new CachedResult(rows, totalCount >= 0 ? totalCount : null,
+                    digest.isEmpty() ? null : digest, header.definitionVersion(), header.expiresAt());
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read cache snapshot {}: {}", file, e.getMessage());
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Persist a result asynchronously.
+     */
+    public void store(String key, String definitionName, CachedResult result) {
+        io.submit(() -> write(key, definitionName, result));
+    }
+
+    /**
+     * Remove all snapshots.
+     */
+    public void clear() {
+        io.submit(() -> {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    delete(file);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to clear cache snapshots in {}: {}", directory, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        io.shutdown();
+    }
+
+    private void write(String key, String definitionName, CachedResult result) {
+        String fileName = fileName(key);
+        Path target = directory.resolve(fileName);
+        Path temp = directory.resolve(fileName + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                RowCodec.writeString(out, key);
+                RowCodec.writeString(out, definitionName);
+                RowCodec.writeString(out, result.definitionVersion());
+                out.writeLong(result.expiresAt());
+                out.writeInt(result.totalCount() != null ? result.totalCount() : -1);
+                RowCodec.writeString(out, result.digest() != null ? result.digest() : "");
+                RowCodec.writeRows(out, result.rows());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.add(fileName);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write cache snapshot for query '{}': {}", definitionName, e.getMessage());
+            delete(temp);
+        }
+    }
+
+    /**
+     * Index existing segments, reading headers only and dropping expired ones.
+     */
+    private void scan() {
+        int kept = 0;
+        int dropped = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (isLive(file)) {
+                    index.add(file.getFileName().toString());
+                    kept++;
+                } else {
+                    delete(file);
+                    dropped++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to scan cache snapshots in {}: {}", directory, e.getMessage());
+        } finally {
+            indexed = true;
+        }
+        log.info("Cache snapshot directory {}: {} segments available, {} expired removed", directory, kept, dropped);
+    }
+
+    private boolean isLive(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Header header = readHeader(new DataInputStream(new ByteBufferInputStream(mapped)));
+            return header != null && header.expiresAt() > System.currentTimeMillis();
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Header readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            return null;
+        }
+        String key = RowCodec.readString(in);
+        String definitionName = RowCodec.readString(in);
+        String definitionVersion = RowCodec.readString(in);
+        long expiresAt = in.readLong();
+        return new Header(key, definitionName, definitionVersion, expiresAt);
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete cache snapshot {}: {}", file, e.getMessage());
+        }
+        index.remove(file.getFileName().toString());
+    }
+
+    private static String fileName(String key) {
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + SUFFIX;
+    }
+
+    private record Header(String key, String definitionName, String definitionVersion, long expiresAt) {
+    }
+}
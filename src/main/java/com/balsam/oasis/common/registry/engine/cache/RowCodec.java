@@ -0,0 +1,286 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+
+/**
+ * Compact binary encoding of query rows used by the persistent and off-heap
+ * cache tiers.
+ *
+ * <p>
+ * Attribute names are written once into a dictionary and referenced by index
+ * from every row. Values carry a one byte type tag, so a decoded row holds
+ * the same types and values as the row that was encoded. A value of any other
+ * type (a LOB locator, a driver-specific type) cannot be encoded: writing it
+ * fails with an {@link IOException} and the result is not cached in that tier.
+ * </p>
+ */
+public final class RowCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte TIMESTAMP = 7;
+    private static final byte SQL_DATE = 8;
+    private static final byte LOCAL_DATE = 9;
+    private static final byte LOCAL_DATE_TIME = 10;
+    private static final byte UTIL_DATE = 11;
+    private static final byte FLOAT = 12;
+    private static final byte SHORT = 13;
+    private static final byte LIST = 14;
+    private static final byte MAP = 15;
+    private static final byte BYTES = 16;
+    private static final byte BYTE = 17;
+    private static final byte BIG_INTEGER = 18;
+    private static final byte INSTANT = 19;
+    private static final byte OFFSET_DATE_TIME = 20;
+    private static final byte LOCAL_TIME = 21;
+
+    private RowCodec() {
+    }
+
+    public static void writeRows(DataOutput out, List<QueryRow> rows) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (QueryRow row : rows) {
+            row.forEach((key, value) -> dictionary.putIfAbsent(key, dictionary.size()));
+        }
+
+        out.writeInt(dictionary.size());
+        for (String key : dictionary.keySet()) {
+            writeString(out, key);
+        }
+
+        out.writeInt(rows.size());
+        for (QueryRow row : rows) {
+            Map<String, Object> data = row.toMap();
+            out.writeInt(data.size());
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                out.writeInt(dictionary.get(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        }
+    }
+
+    public static List<QueryRow> readRows(DataInput in, QueryContext context) throws IOException {
+        int dictionarySize = in.readInt();
+        String[] dictionary = new String[dictionarySize];
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = readString(in);
+        }
+
+        int rowCount = in.readInt();
+        List<QueryRow> rows = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            int size = in.readInt();
+            Map<String, Object> data = new HashMap<>(Math.max(16, size * 2));
+            for (int i = 0; i < size; i++) {
+                String key = dictionary[in.readInt()];
+                data.put(key, readValue(in));
+            }
+            rows.add(QueryRow.create(data, context));
+        }
+        return rows;
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INTEGER);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof BigDecimal d) {
+            out.writeByte(DECIMAL);
+            out.writeInt(d.scale());
+            byte[] unscaled = d.unscaledValue().toByteArray();
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeByte(FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Short s) {
+            out.writeByte(SHORT);
+            out.writeShort(s);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof java.sql.Timestamp ts) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(ts.getTime());
+            out.writeInt(ts.getNanos());
+        } else if (value instanceof java.sql.Date date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof java.util.Date date) {
+            out.writeByte(UTIL_DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(LOCAL_DATE);
+            out.writeLong(date.toEpochDay());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Byte b) {
+            out.writeByte(BYTE);
+            out.writeByte(b);
+        } else if (value instanceof BigInteger i) {
+            out.writeByte(BIG_INTEGER);
+            byte[] magnitude = i.toByteArray();
+            out.writeInt(magnitude.length);
+            out.write(magnitude);
+        } else if (value instanceof Instant instant) {
+            out.writeByte(INSTANT);
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        } else if (value instanceof OffsetDateTime dateTime) {
+            out.writeByte(OFFSET_DATE_TIME);
+            out.writeLong(dateTime.toLocalDateTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+            out.writeInt(dateTime.getOffset().getTotalSeconds());
+        } else if (value instanceof LocalTime time) {
+            out.writeByte(LOCAL_TIME);
+            out.writeLong(time.toNanoOfDay());
+        } else {
+            throw new IOException("Cannot cache value of type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DECIMAL: {
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case SHORT:
+                return in.readShort();
+            case BOOLEAN:
+                return in.readBoolean();
+            case TIMESTAMP: {
+                java.sql.Timestamp ts = new java.sql.Timestamp(in.readLong());
+                ts.setNanos(in.readInt());
+                return ts;
+            }
+            case SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case UTIL_DATE:
+                return new java.util.Date(in.readLong());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.readLong());
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            case BYTES: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            }
+            case BYTE:
+                return in.readByte();
+            case BIG_INTEGER: {
+                byte[] magnitude = new byte[in.readInt()];
+                in.readFully(magnitude);
+                return new BigInteger(magnitude);
+            }
+            case INSTANT:
+                return Instant.ofEpochSecond(in.readLong(), in.readInt());
+            case OFFSET_DATE_TIME: {
+                LocalDateTime local = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                return OffsetDateTime.of(local, ZoneOffset.ofTotalSeconds(in.readInt()));
+            }
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(in.readLong());
+            default:
+                throw new IOException("Unknown value tag in cached row: " + tag);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limit driven by observed latency.
+ *
+ * <p>
+ * The limit grows by one for each uncongested completion while the limiter is
+ * at least half used, and shrinks multiplicatively on congestion. A completion
+ * is congested when it failed with a timeout, or when the smoothed recent
+ * latency exceeds {@code tolerance} times the baseline. The baseline is a
+ * slowly decaying minimum of observed latencies, so it follows genuine plan or
+ * data changes over time without being dragged up by a short overload. Very
+ * fast executions never count as congested, so jitter on millisecond lookups
+ * does not shrink the limit.
+ * </p>
+ *
+ * <p>
+ * Acquisition never waits: when the in-flight count has reached the limit the
+ * caller is expected to shed the request immediately.
+ * </p>
+ */
+public class AdaptiveLimiter {
+
+    /** Relative upward drift of the latency baseline per sample */
+    private static final double BASELINE_DRIFT = 0.001;
+
+    /** Weight of the newest sample in the smoothed latency */
+    private static final double SMOOTHING = 0.2;
+
+    /** Latencies below this are never considered congested */
+    private static final long CONGESTION_FLOOR_NANOS = 10_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private double baselineNanos = Double.NaN;
+    private double smoothedNanos = Double.NaN;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a slot and feed the latency sample into the limit.
+     *
+     * @return whether the sample was judged congested
+     */
+    public boolean release(long latencyNanos, boolean dropped) {
+        boolean congested;
+        lock.lock();
+        try {
+            if (!dropped) {
+                if (Double.isNaN(baselineNanos) || latencyNanos < baselineNanos) {
+                    baselineNanos = latencyNanos;
+                } else {
+                    baselineNanos = baselineNanos * (1 + BASELINE_DRIFT);
+                }
+                smoothedNanos = Double.isNaN(smoothedNanos)
+                        ? latencyNanos
+                        : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+            }
+            congested = dropped
+                    || (smoothedNanos > CONGESTION_FLOOR_NANOS && smoothedNanos > baselineNanos * tolerance);
+            adjust(congested);
+        } finally {
+            lock.unlock();
+        }
+        inFlight.decrementAndGet();
+        return congested;
+    }
+
+    /**
+     * Release a slot using a congestion signal computed elsewhere. Used by the
+     * global limiter, whose samples mix queries with very different latencies.
+     */
+    public void release(boolean congested) {
+        lock.lock();
+        try {
+            adjust(congested);
+        } finally {
+            lock.unlock();
+        }
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Give back a slot that was never used, without a latency sample.
+     */
+    public void abandon() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void adjust(boolean congested) {
+        if (congested) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight.get() * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.balsam.oasis.common.registry.domain.definition.ConcurrencyConfig;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+
+/**
+ * Limits concurrent executions of one definition.
+ *
+ * <p>
+ * Up to {@code maxConcurrency} executions run at once. Up to {@code maxQueued}
+ * more wait for a slot, each for at most {@code queueTimeout} (or until its
+ * deadline, if sooner). Everything beyond that is rejected immediately with
+ * {@link QueryException.ErrorCode#CONCURRENCY_LIMIT_EXCEEDED}, so an expensive
+ * query cannot take every pooled connection.
+ * </p>
+ */
+public class Bulkhead {
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ConcurrencyConfig config;
+
+    public Bulkhead(ConcurrencyConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConcurrency(), true);
+    }
+
+    public void acquire(String name, ExecutionDeadline deadline) {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > config.getMaxQueued()) {
+            waiting.decrementAndGet();
+            throw rejected(name);
+        }
+        try {
+            long waitMillis = Math.min(config.getQueueTimeout().toMillis(), deadline.remainingMillis());
+            if (!permits.tryAcquire(Math.max(0, waitMillis), TimeUnit.MILLISECONDS)) {
+                throw rejected(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rejected(name);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    public int queued() {
+        return waiting.get();
+    }
+
+    private QueryException rejected(String name) {
+        return new QueryException(name, QueryException.ErrorCode.CONCURRENCY_LIMIT_EXCEEDED,
+                String.format("Too many concurrent executions (limit %d, queue %d)",
+                        config.getMaxConcurrency(), config.getMaxQueued()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import java.util.concurrent.ExecutionException;
+
+import com.balsam.oasis.common.registry.domain.definition.ConcurrencyConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * One {@link Bulkhead} per definition instance. Keys are weak and compared by
+ * identity, so a re-registered definition gets a fresh bulkhead and the old
+ * one is dropped with its definition.
+ */
+public class BulkheadRegistry {
+
+    private final Cache<Object, Bulkhead> bulkheads = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * Bulkhead for the definition, or null when it has no concurrency limit.
+     */
+    public Bulkhead forDefinition(Object definition, ConcurrencyConfig config) {
+        if (config == null) {
+            return null;
+        }
+        try {
+            return bulkheads.get(definition, () -> new Bulkhead(config));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
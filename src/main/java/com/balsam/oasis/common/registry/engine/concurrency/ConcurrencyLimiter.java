@@ -0,0 +1,116 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import java.util.concurrent.ExecutionException;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Adaptive load shedding in front of the database.
+ *
+ * <p>
+ * Every execution must pass a per-definition {@link AdaptiveLimiter}, which
+ * judges congestion against that definition's own latency baseline, and a
+ * global one that shrinks when any definition reports congestion. When either
+ * is saturated the request fails immediately with
+ * {@link QueryException.ErrorCode#OVERLOADED} instead of queueing for a pooled
+ * connection.
+ * </p>
+ */
+public class ConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final AdaptiveLimiter global;
+    private final Cache<Object, AdaptiveLimiter> perDefinition;
+    private final Settings perDefinitionSettings;
+
+    public ConcurrencyLimiter(Settings globalSettings, Settings perDefinitionSettings) {
+        this.enabled = true;
+        this.global = globalSettings.create();
+        this.perDefinitionSettings = perDefinitionSettings;
+        this.perDefinition = CacheBuilder.newBuilder().weakKeys().build();
+    }
+
+    private ConcurrencyLimiter() {
+        this.enabled = false;
+        this.global = null;
+        this.perDefinition = null;
+        this.perDefinitionSettings = null;
+    }
+
+    public static ConcurrencyLimiter disabled() {
+        return new ConcurrencyLimiter();
+    }
+
+    /**
+     * Take a slot for the definition or fail with OVERLOADED. The returned
+     * permit must be released exactly once.
+     */
+    public Permit acquire(Object definition, String name) {
+        if (!enabled) {
+            return Permit.NOOP;
+        }
+        AdaptiveLimiter limiter = limiterFor(definition);
+        if (!limiter.tryAcquire()) {
+            throw overloaded(name, limiter.getLimit());
+        }
+        if (!global.tryAcquire()) {
+            limiter.abandon();
+            throw overloaded(name, global.getLimit());
+        }
+        return new Permit(limiter, global, System.nanoTime());
+    }
+
+    public int getGlobalLimit() {
+        return enabled ? global.getLimit() : -1;
+    }
+
+    private AdaptiveLimiter limiterFor(Object definition) {
+        try {
+            return perDefinition.get(definition, perDefinitionSettings::create);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private QueryException overloaded(String name, int limit) {
+        return new QueryException(name, QueryException.ErrorCode.OVERLOADED,
+                "Database is saturated (concurrency limit " + limit + "), retry later");
+    }
+
+    /**
+     * Limiter bounds and tuning.
+     */
+    public record Settings(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        AdaptiveLimiter create() {
+            return new AdaptiveLimiter(initialLimit, minLimit, maxLimit, tolerance, backoffRatio);
+        }
+    }
+
+    /**
+     * A granted slot. {@code dropped} marks executions that timed out or could
+     * not get a connection, which always count as congestion.
+     */
+    public static final class Permit {
+        static final Permit NOOP = new Permit(null, null, 0);
+
+        private final AdaptiveLimiter limiter;
+        private final AdaptiveLimiter global;
+        private final long startNanos;
+
+        private Permit(AdaptiveLimiter limiter, AdaptiveLimiter global, long startNanos) {
+            this.limiter = limiter;
+            this.global = global;
+            this.startNanos = startNanos;
+        }
+
+        public void release(boolean dropped) {
+            if (limiter == null) {
+                return;
+            }
+            boolean congested = limiter.release(System.nanoTime() - startNanos, dropped);
+            global.release(congested);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+
+/**
+ * Priority scheduling of executions across {@link ExecutionLane}s.
+ *
+ * <p>
+ * Every lane runs at most its own {@code maxConcurrency} executions, and all
+ * lanes together at most {@code totalConcurrency}. An execution that cannot
+ * start waits in its lane's queue, for at most the lane's queue timeout or the
+ * request deadline. When a slot frees up it goes to the highest-priority lane
+ * with waiters that is under its own budget, and a lane never starts new work
+ * while a higher-priority lane is waiting for a slot. Exports therefore fill
+ * only the capacity interactive requests leave unused. Within a lane, a new
+ * execution never starts ahead of those already queued, and a full queue is
+ * rejected immediately with
+ * {@link QueryException.ErrorCode#CONCURRENCY_LIMIT_EXCEEDED}.
+ * </p>
+ */
+public class LaneScheduler {
+
+    private final int totalConcurrency;
+    private final Map<ExecutionLane, Budget> budgets;
+    private final Map<ExecutionLane, Condition> available = new EnumMap<>(ExecutionLane.class);
+    private final Map<ExecutionLane, Integer> running = new EnumMap<>(ExecutionLane.class);
+    /** Tickets of the executions queued in each lane, in arrival order */
+    private final Map<ExecutionLane, Deque<Object>> waiting = new EnumMap<>(ExecutionLane.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private int totalRunning;
+
+    public LaneScheduler(int totalConcurrency, Map<ExecutionLane, Budget> budgets) {
+        this.totalConcurrency = Math.max(1, totalConcurrency);
+        this.budgets = new EnumMap<>(budgets);
+        for (ExecutionLane lane : ExecutionLane.values()) {
+            if (!this.budgets.containsKey(lane)) {
+                throw new IllegalArgumentException("No budget configured for lane " + lane);
+            }
+            available.put(lane, lock.newCondition());
+            running.put(lane, 0);
+            waiting.put(lane, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Take a slot in the lane, waiting in its queue if necessary. Every
+     * successful call must be followed by exactly one {@link #release}.
+     */
+    public void acquire(ExecutionLane lane, String name, ExecutionDeadline deadline) {
+        Budget budget = budgets.get(lane);
+        lock.lock();
+        try {
+            Deque<Object> queue = waiting.get(lane);
+            // Never overtake executions already queued in the same lane
+            if (queue.isEmpty() && canStart(lane)) {
+                start(lane);
+                return;
+            }
+            if (queue.size() >= budget.maxQueued()) {
+                throw rejected(lane, name, budget);
+            }
+
+            long waitNanos = Math.min(budget.queueTimeout().toNanos(),
+                    TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadline.remainingMillis())));
+            Object ticket = new Object();
+            queue.addLast(ticket);
+            try {
+                while (queue.peekFirst() != ticket || !canStart(lane)) {
+                    if (waitNanos <= 0) {
+                        throw rejected(lane, name, budget);
+                    }
+                    waitNanos = available.get(lane).awaitNanos(waitNanos);
+                }
+                start(lane);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw rejected(lane, name, budget);
+            } finally {
+                queue.remove(ticket);
+                // Our departure may unblock the next in line or a lower-priority lane
+                signalNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(ExecutionLane lane) {
+        lock.lock();
+        try {
+            running.merge(lane, -1, Integer::sum);
+            totalRunning--;
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running(ExecutionLane lane) {
+        lock.lock();
+        try {
+            return running.get(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(ExecutionLane lane) {
+        lock.lock();
+        try {
+            return waiting.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canStart(ExecutionLane lane) {
+        if (totalRunning >= totalConcurrency || running.get(lane) >= budgets.get(lane).maxConcurrency()) {
+            return false;
+        }
+        for (ExecutionLane higher : ExecutionLane.values()) {
+            if (higher == lane) {
+                break;
+            }
+            if (!waiting.get(higher).isEmpty() && running.get(higher) < budgets.get(higher).maxConcurrency()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void start(ExecutionLane lane) {
+        running.merge(lane, 1, Integer::sum);
+        totalRunning++;
+    }
+
+    /**
+     * Wake the waiters of the highest-priority lane that can start now; only
+     * the head of its queue proceeds. Must hold the lock.
+     */
+    private void signalNext() {
+        for (ExecutionLane lane : ExecutionLane.values()) {
+            if (!waiting.get(lane).isEmpty() && canStart(lane)) {
+                available.get(lane).signalAll();
+                return;
+            }
+        }
+    }
+
+    private QueryException rejected(ExecutionLane lane, String name, Budget budget) {
+        return new QueryException(name, QueryException.ErrorCode.CONCURRENCY_LIMIT_EXCEEDED,
+                String.format("Lane %s is full (limit %d, queue %d)", lane, budget.maxConcurrency(),
+                        budget.maxQueued()));
+    }
+
+    /**
+     * Concurrency budget and queue of one lane
+     */
+    public record Budget(int maxConcurrency, int maxQueued, Duration queueTimeout) {
+    }
+}
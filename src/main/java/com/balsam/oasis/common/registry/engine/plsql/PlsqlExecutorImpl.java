@@ -2,41 +2,73 @@ package com.balsam.oasis.common.registry.engine.plsql;
 
 import java.sql.CallableStatement;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Types;
+import java.sql.SQLTimeoutException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlCallPlan;
 import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlBatchResult;
 import com.balsam.oasis.common.registry.domain.execution.PlsqlContext;
 import com.balsam.oasis.common.registry.domain.execution.PlsqlExecution;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlWorkflowStep;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.balsam.oasis.common.registry.engine.concurrency.Bulkhead;
+import com.balsam.oasis.common.registry.engine.concurrency.BulkheadRegistry;
+import com.balsam.oasis.common.registry.engine.query.RowProjection;
+import com.google.common.collect.Lists;
 
 public class PlsqlExecutorImpl {
     private static final Logger log = LoggerFactory.getLogger(PlsqlExecutorImpl.class);
 
+    /** Rows fetched per round trip from a REF CURSOR without its own fetch size */
+    private static final int DEFAULT_CURSOR_FETCH_SIZE = 100;
+
     private final JdbcTemplate jdbcTemplate;
     private final PlsqlRegistryImpl plsqlRegistry;
+    private final Executor asyncExecutor;
+    private final TransactionTemplate transaction;
+    private final BulkheadRegistry bulkheads = new BulkheadRegistry();
+    private final int batchChunkSize;
 
-    public PlsqlExecutorImpl(JdbcTemplate jdbcTemplate, PlsqlRegistryImpl plsqlRegistry) {
+    public PlsqlExecutorImpl(JdbcTemplate jdbcTemplate, PlsqlRegistryImpl plsqlRegistry, Executor asyncExecutor,
+            PlatformTransactionManager transactionManager, int batchChunkSize) {
         this.jdbcTemplate = jdbcTemplate;
         this.plsqlRegistry = plsqlRegistry;
+        this.asyncExecutor = asyncExecutor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchChunkSize = Math.max(1, batchChunkSize);
+    }
+
+    /**
+     * Executor used by {@link PlsqlExecution#executeAsync()}
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
     }
 
     public PlsqlExecution execute(String plsqlName) {
@@ -52,42 +84,29 @@ public class PlsqlExecutorImpl {
         return new PlsqlExecution(definition, this);
     }
 
-    @Transactional
+    /**
+     * Execute a PL/SQL block. The transaction (and its connection) is opened
+     * only after the definition's bulkhead has granted a slot.
+     */
     public Map<String, Object> doExecute(PlsqlContext context) {
         try {
             // Run pre-processors
             runPreProcessors(context);
 
-            // Process parameters and apply defaults
-            String finalPlsql = processParameters(context);
-
-            log.debug("Executing PL/SQL '{}': {}", context.getDefinition().getName(), finalPlsql);
-            log.debug("Parameters: {}", context.getParams());
-
-            // Execute PL/SQL with proper named parameter handling
-            Map<String, Object> outputs = jdbcTemplate.execute(
-                    (Connection con) -> con.prepareCall(finalPlsql),
-                    (CallableStatementCallback<Map<String, Object>>) cs -> {
-                        // Bind parameters by parsing SQL order
-                        bindParametersInSqlOrder(cs, finalPlsql, context);
-
-                        // Register OUT parameters by parsing SQL order
-                        registerOutParametersInSqlOrder(cs, finalPlsql, context);
-
-                        // Execute
-                        cs.execute();
-
-                        // Collect outputs by parsing SQL order
-                        return collectOutputsInSqlOrder(cs, finalPlsql, context);
-                    });
-
-            // Make outputs mutable for post-processors
-            Map<String, Object> mutableOutputs = new HashMap<>(outputs);
-
-            // Run post-processors (can modify/add outputs directly)
-            mutableOutputs = runPostProcessors(mutableOutputs, context);
+            PlsqlDefinitionBuilder definition = context.getDefinition();
+            context.getDeadline().check(definition.getName());
 
-            return mutableOutputs;
+            Bulkhead bulkhead = bulkheads.forDefinition(definition, definition.getConcurrencyConfig());
+            if (bulkhead != null) {
+                bulkhead.acquire(definition.getName(), context.getDeadline());
+            }
+            try {
+                return transaction.execute(status -> executeInTransaction(context));
+            } finally {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
 
         } catch (Exception e) {
             log.error("PL/SQL execution failed for '{}': {}",
@@ -95,6 +114,11 @@ public class PlsqlExecutorImpl {
 
             if (e instanceof QueryException queryException) {
                 throw queryException;
+            } else if (e instanceof QueryTimeoutException || context.getDeadline().isExpired()) {
+                throw new QueryException(
+                        context.getDefinition().getName(),
+                        QueryException.ErrorCode.TIMEOUT,
+                        "PL/SQL execution timed out or was cancelled", e);
             } else {
                 throw new QueryException(
                         context.getDefinition().getName(),
@@ -104,273 +128,464 @@ public class PlsqlExecutorImpl {
         }
     }
 
-    private void runPreProcessors(PlsqlContext context) {
-        PlsqlDefinitionBuilder definition = context.getDefinition();
-        if (definition.hasPreProcessors()) {
-            definition.getPreProcessors().forEach(processor -> processor.process(context));
-        }
-    }
-
-    private Map<String, Object> runPostProcessors(Map<String, Object> outputs, PlsqlContext context) {
-        PlsqlDefinitionBuilder definition = context.getDefinition();
-        if (!definition.hasPostProcessors()) {
-            return outputs;
+    /**
+     * Execute a block once per parameter set. Results come back in the order
+     * of {@code paramSets}; a failed set never fails the others.
+     *
+     * <p>
+     * Sets are processed in chunks of {@code batchChunkSize}, one transaction
+     * per chunk. Blocks without OUT parameters are sent with
+     * {@code addBatch}/{@code executeBatch} on one CallableStatement; if that
+     * fails, the chunk is rolled back to its savepoint and replayed set by set
+     * to find the failing ones. Blocks with OUT parameters run set by set, each
+     * behind its own savepoint. The bulkhead slot is held for the whole batch.
+     * </p>
+     */
+    public List<PlsqlBatchResult> doExecuteBatch(PlsqlDefinitionBuilder definition,
+            List<Map<String, Object>> paramSets, ExecutionDeadline deadline) {
+        String name = definition.getName();
+        PlsqlBatchResult[] results = new PlsqlBatchResult[paramSets.size()];
+
+        // Pre-processors and defaults run up front, so invalid sets never reach the database
+        List<BatchRow> rows = new ArrayList<>(paramSets.size());
+        for (int i = 0; i < paramSets.size(); i++) {
+            Map<String, Object> params = paramSets.get(i);
+            PlsqlContext context = PlsqlContext.builder()
+                    .definition(definition)
+                    .params(params != null ? new HashMap<>(params) : new HashMap<>())
+                    .deadline(deadline)
+                    .build();
+            try {
+                runPreProcessors(context);
+                rows.add(new BatchRow(i, context, processParameters(context)));
+            } catch (RuntimeException e) {
+                results[i] = PlsqlBatchResult.failure(i, batchError(name, e, deadline));
+            }
         }
 
-        Map<String, Object> processedOutputs = outputs;
-        for (var processor : definition.getPostProcessors()) {
-            processedOutputs = processor.process(processedOutputs, context);
+        Bulkhead bulkhead = null;
+        try {
+            deadline.check(name);
+            bulkhead = bulkheads.forDefinition(definition, definition.getConcurrencyConfig());
+            if (bulkhead != null) {
+                bulkhead.acquire(name, deadline);
+            }
+        } catch (QueryException e) {
+            rows.forEach(row -> results[row.index()] = PlsqlBatchResult.failure(row.index(), e));
+            return Arrays.asList(results);
         }
-        return processedOutputs;
-    }
-
-    private String processParameters(PlsqlContext context) {
-        String plsql = context.getDefinition().getPlsql();
-
-        for (PlsqlParamDef<?> param : context.getDefinition().getParameters().values()) {
-            if (!context.hasParam(param.name())) {
-                // Apply PL/SQL default if specified
-                if (param.hasPlsqlDefault()) {
-                    plsql = plsql.replace(":" + param.name(), param.plsqlDefault());
-                }
-                // Apply Java default if specified
-                else if (param.hasDefaultValue()) {
-                    context.addParam(param.name(), param.defaultValue());
-                }
-                // Check if required (only for IN and INOUT)
-                else if (param.required() &&
-                        (param.mode() == PlsqlParamDef.ParamMode.IN ||
-                                param.mode() == PlsqlParamDef.ParamMode.INOUT)) {
-                    throw new QueryException("Required parameter missing: " + param.name());
+        try {
+            for (List<BatchRow> chunk : Lists.partition(rows, batchChunkSize)) {
+                try {
+                    deadline.check(name);
+                    transaction.execute(status -> jdbcTemplate.execute(
+                            (ConnectionCallback<Void>) con -> {
+                                executeChunk(con, chunk, results);
+                                return null;
+                            }));
+                } catch (RuntimeException e) {
+                    QueryException error = batchError(name, e, deadline);
+                    chunk.forEach(row -> results[row.index()] = PlsqlBatchResult.failure(row.index(), error));
                 }
             }
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
         }
-
-        return plsql;
+        return Arrays.asList(results);
     }
 
-    private void bindParameterValue(CallableStatement cs, int index, Object value, Class<?> targetType, int sqlType)
+    private void executeChunk(Connection con, List<BatchRow> chunk, PlsqlBatchResult[] results)
             throws SQLException {
-        if (value == null) {
-            cs.setNull(index, sqlType);
-            return;
-        }
-
-        // Handle date types specifically using sqlType
-        if (sqlType == Types.DATE) {
-            java.util.Date dateValue = convertToDate(value);
-            if (dateValue != null) {
-                cs.setDate(index, new java.sql.Date(dateValue.getTime()));
+        int start = 0;
+        while (start < chunk.size()) {
+            // Sets whose omitted defaults differ use a different plan variant
+            PlsqlCallPlan plan = chunk.get(start).plan();
+            int end = start + 1;
+            while (end < chunk.size() && chunk.get(end).plan() == plan) {
+                end++;
+            }
+            List<BatchRow> group = chunk.subList(start, end);
+            if (plan.getOutSlots().isEmpty()) {
+                executeBatched(con, plan, group, results);
             } else {
-                cs.setNull(index, Types.DATE);
+                executeRows(con, plan, group, results);
             }
-            return;
+            start = end;
         }
+    }
 
-        if (sqlType == Types.TIMESTAMP) {
-            java.util.Date dateValue = convertToDate(value);
-            if (dateValue != null) {
-                cs.setTimestamp(index, new java.sql.Timestamp(dateValue.getTime()));
-            } else {
-                cs.setNull(index, Types.TIMESTAMP);
+    private void executeBatched(Connection con, PlsqlCallPlan plan, List<BatchRow> group,
+            PlsqlBatchResult[] results) throws SQLException {
+        PlsqlDefinitionBuilder definition = group.get(0).context().getDefinition();
+        ExecutionDeadline deadline = group.get(0).context().getDeadline();
+        Savepoint savepoint = con.setSavepoint();
+        try (CallableStatement cs = con.prepareCall(plan.getSql())) {
+            deadline.attach(cs, definition.getQueryTimeout(), definition.getName());
+            try {
+                for (BatchRow row : group) {
+                    bindParameters(cs, plan, row.context());
+                    cs.addBatch();
+                }
+                cs.executeBatch();
+            } finally {
+                deadline.detach(cs);
+            }
+        } catch (SQLException e) {
+            if (deadline.isExpired()) {
+                throw e;
             }
+            log.debug("Batch of {} sets for '{}' failed, replaying one by one: {}",
+                    group.size(), definition.getName(), e.getMessage());
+            con.rollback(savepoint);
+            executeRows(con, plan, group, results);
             return;
         }
+        for (BatchRow row : group) {
+            results[row.index()] = complete(row, new HashMap<>());
+        }
+    }
 
-        // Handle other types based on sqlType
-        Object convertedValue = convertParameterValue(value, targetType);
-        if (convertedValue != null) {
-            // Use type-specific setters for better Oracle compatibility
-            if (sqlType == Types.VARCHAR || sqlType == Types.CHAR) {
-                cs.setString(index, (String) convertedValue);
-            } else if (sqlType == Types.INTEGER) {
-                cs.setInt(index, ((Number) convertedValue).intValue());
-            } else if (sqlType == Types.BIGINT) {
-                cs.setLong(index, ((Number) convertedValue).longValue());
-            } else if (sqlType == Types.NUMERIC || sqlType == Types.DECIMAL) {
-                cs.setBigDecimal(index, (java.math.BigDecimal) convertedValue);
-            } else if (sqlType == Types.BOOLEAN) {
-                cs.setBoolean(index, (Boolean) convertedValue);
-            } else {
-                cs.setObject(index, convertedValue, sqlType);
+    private void executeRows(Connection con, PlsqlCallPlan plan, List<BatchRow> group,
+            PlsqlBatchResult[] results) throws SQLException {
+        PlsqlDefinitionBuilder definition = group.get(0).context().getDefinition();
+        ExecutionDeadline deadline = group.get(0).context().getDeadline();
+        try (CallableStatement cs = con.prepareCall(plan.getSql())) {
+            for (BatchRow row : group) {
+                Savepoint savepoint = con.setSavepoint();
+                Map<String, Object> outputs;
+                try {
+                    deadline.attach(cs, definition.getQueryTimeout(), definition.getName());
+                    try {
+                        cs.clearParameters();
+                        bindParameters(cs, plan, row.context());
+                        registerOutParameters(cs, plan);
+                        cs.execute();
+                        outputs = collectOutputs(cs, plan, row.context());
+                    } finally {
+                        deadline.detach(cs);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    con.rollback(savepoint);
+                    results[row.index()] = PlsqlBatchResult.failure(row.index(),
+                            batchError(definition.getName(), e, deadline));
+                    continue;
+                }
+                results[row.index()] = complete(row, outputs);
             }
-        } else {
-            cs.setNull(index, sqlType);
         }
     }
 
-    private Object convertParameterValue(Object value, Class<?> targetType) {
-        if (value == null) {
-            return null;
+    private PlsqlBatchResult complete(BatchRow row, Map<String, Object> outputs) {
+        try {
+            return PlsqlBatchResult.success(row.index(), runPostProcessors(outputs, row.context()));
+        } catch (RuntimeException e) {
+            return PlsqlBatchResult.failure(row.index(),
+                    batchError(row.context().getDefinition().getName(), e, row.context().getDeadline()));
         }
+    }
 
-        // If value is already the correct type, return as-is
-        if (targetType.isAssignableFrom(value.getClass())) {
-            return value;
+    private QueryException batchError(String name, Exception e, ExecutionDeadline deadline) {
+        if (e instanceof QueryException queryException) {
+            return queryException;
         }
-
-        // Handle date conversions
-        if (targetType == java.util.Date.class || targetType == java.sql.Date.class) {
-            return convertToDate(value);
+        if (e instanceof SQLTimeoutException || e instanceof QueryTimeoutException || deadline.isExpired()) {
+            return new QueryException(name, QueryException.ErrorCode.TIMEOUT,
+                    "PL/SQL execution timed out or was cancelled", e);
         }
+        return new QueryException(name, QueryException.ErrorCode.EXECUTION_ERROR,
+                "PL/SQL execution failed: " + e.getMessage(), e);
+    }
 
-        // Handle other type conversions as needed
-        if (targetType == String.class) {
-            return value.toString();
-        }
+    private record BatchRow(int index, PlsqlContext context, PlsqlCallPlan plan) {
+    }
 
-        if (targetType == Integer.class) {
-            if (value instanceof Number) {
-                return ((Number) value).intValue();
-            } else if (value instanceof String) {
-                try {
-                    return Integer.valueOf((String) value);
-                } catch (NumberFormatException e) {
-                    log.warn("Could not convert '{}' to Integer", value);
-                    return value;
-                }
+    /**
+     * Run a workflow: its steps in order, in one transaction and so on one
+     * connection, with one commit at the end. Overloads resolve from
+     * parameter names alone, so each step's overload is resolved up front from
+     * the names in its params and inputs; its input values are taken from the
+     * outputs of earlier steps as it runs. The first failing step rolls back
+     * every step and fails the workflow. Bulkhead slots are all taken before
+     * the transaction opens and held until it ends, so no step waits for a
+     * slot while holding the workflow's connection and locks.
+     *
+     * @return the outputs of each step by alias, in step order
+     */
+    public Map<String, Map<String, Object>> doExecuteWorkflow(List<PlsqlWorkflowStep> steps,
+            ExecutionDeadline deadline) {
+        List<PlsqlDefinitionBuilder> definitions = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            PlsqlWorkflowStep step = steps.get(i);
+            try {
+                definitions.add(resolveStep(step));
+            } catch (QueryException e) {
+                throw new QueryException(null, e.getErrorCode(), String.format(
+                        "Workflow step %d ('%s') has no matching block: %s", i + 1, step.alias(), e.getMessage()), e);
             }
         }
-
-        // Return original value if no conversion available
-        return value;
+        List<Bulkhead> held = acquireWorkflowBulkheads(definitions, deadline);
+        try {
+            return transaction.execute(status -> runWorkflow(steps, definitions, deadline));
+        } finally {
+            held.forEach(Bulkhead::release);
+        }
     }
 
-    private java.util.Date convertToDate(Object value) {
-        if (value instanceof java.util.Date) {
-            return (java.util.Date) value;
+    private PlsqlDefinitionBuilder resolveStep(PlsqlWorkflowStep step) {
+        Map<String, Object> names = new HashMap<>(step.params());
+        step.inputs().keySet().forEach(param -> names.put(param, null));
+        PlsqlDefinitionBuilder definition = plsqlRegistry.resolve(step.name(), names);
+        if (definition == null) {
+            throw new QueryException(step.name(), QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "PL/SQL block not found: " + step.name());
         }
+        return definition;
+    }
 
-        if (value instanceof String) {
-            String dateStr = (String) value;
-
-            // Try different date formats
-            String[] dateFormats = {
-                    "yyyy-MM-dd",
-                    "yyyy-MM-dd HH:mm:ss",
-                    "yyyy-MM-dd'T'HH:mm:ss",
-                    "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'",
-                    "yyyy-MM-dd'T'HH:mm:ss.SSSXXX"
-            };
-
-            for (String format : dateFormats) {
-                try {
-                    SimpleDateFormat sdf = new SimpleDateFormat(format);
-                    return sdf.parse(dateStr);
-                } catch (ParseException e) {
-                    // Try next format
+    /**
+     * Take one slot of the bulkhead of every resolved step; a definition
+     * takes one slot however many steps run it. Definitions are taken by
+     * name, then in registration order, so concurrent workflows queue in the
+     * same order, and the slots already taken are released if one is refused.
+     */
+    private List<Bulkhead> acquireWorkflowBulkheads(List<PlsqlDefinitionBuilder> definitions,
+            ExecutionDeadline deadline) {
+        Map<String, List<PlsqlDefinitionBuilder>> overloads = new TreeMap<>();
+        for (PlsqlDefinitionBuilder definition : definitions) {
+            overloads.computeIfAbsent(definition.getName(), plsqlRegistry::getOverloads);
+        }
+        List<Bulkhead> held = new ArrayList<>();
+        try {
+            for (List<PlsqlDefinitionBuilder> registered : overloads.values()) {
+                for (PlsqlDefinitionBuilder definition : registered) {
+                    if (!definitions.contains(definition)) {
+                        continue;
+                    }
+                    Bulkhead bulkhead = bulkheads.forDefinition(definition, definition.getConcurrencyConfig());
+                    if (bulkhead != null) {
+                        bulkhead.acquire(definition.getName(), deadline);
+                        held.add(bulkhead);
+                    }
                 }
             }
+        } catch (RuntimeException e) {
+            held.forEach(Bulkhead::release);
+            throw e;
+        }
+        return held;
+    }
 
-            // Try ISO LocalDate
+    private Map<String, Map<String, Object>> runWorkflow(List<PlsqlWorkflowStep> steps,
+            List<PlsqlDefinitionBuilder> definitions, ExecutionDeadline deadline) {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            PlsqlWorkflowStep step = steps.get(i);
             try {
-                LocalDate localDate = LocalDate.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE);
-                return java.sql.Date.valueOf(localDate);
-            } catch (Exception e) {
-                // Try ISO LocalDateTime
-                try {
-                    LocalDateTime localDateTime = LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                    return java.sql.Timestamp.valueOf(localDateTime);
-                } catch (Exception ex) {
-                    log.warn("Could not parse date string: {}", dateStr);
-                }
+                results.put(step.alias(), executeStep(step, definitions.get(i), results, deadline));
+            } catch (RuntimeException e) {
+                QueryException cause = batchError(step.name(), e, deadline);
+                log.error("PL/SQL workflow failed at step {} ('{}'): {}", i + 1, step.alias(), cause.getMessage());
+                throw new QueryException(null, cause.getErrorCode(), String.format(
+                        "Workflow step %d ('%s') failed, all steps rolled back: %s",
+                        i + 1, step.alias(), cause.getMessage()), cause);
             }
         }
+        return results;
+    }
 
-        log.warn("Could not convert value '{}' to Date, returning null", value);
-        return null;
+    private Map<String, Object> executeStep(PlsqlWorkflowStep step, PlsqlDefinitionBuilder definition,
+            Map<String, Map<String, Object>> results, ExecutionDeadline deadline) {
+        Map<String, Object> params = new HashMap<>(step.params());
+        step.inputs().forEach((param, reference) -> params.put(param, workflowInput(reference, results)));
+
+        PlsqlContext context = PlsqlContext.builder()
+                .definition(definition)
+                .params(params)
+                .deadline(deadline)
+                .build();
+        runPreProcessors(context);
+        deadline.check(definition.getName());
+
+        // Joins the workflow's transaction, so it runs on the same connection
+        return executeInTransaction(context);
     }
 
-    private void bindParametersInSqlOrder(CallableStatement cs, String sql, PlsqlContext context) throws SQLException {
-        List<String> paramOrder = extractParameterOrder(sql);
-        int index = 1;
+    /**
+     * The output an {@code alias.output} reference points to
+     */
+    private static Object workflowInput(String reference, Map<String, Map<String, Object>> results) {
+        int dot = reference.indexOf('.');
+        Map<String, Object> outputs = dot > 0 ? results.get(reference.substring(0, dot)) : null;
+        String output = dot > 0 ? reference.substring(dot + 1) : reference;
+        if (outputs == null || !outputs.containsKey(output)) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR,
+                    "Workflow input not found among earlier outputs: " + reference);
+        }
+        return outputs.get(output);
+    }
 
-        log.debug("Parameter order extracted from SQL: {}", paramOrder);
+    private Map<String, Object> executeInTransaction(PlsqlContext context) {
+        ExecutionDeadline deadline = context.getDeadline();
 
-        for (String paramName : paramOrder) {
-            PlsqlParamDef<?> param = context.getDefinition().getParameters().get(paramName);
-            if (param == null) {
-                throw new QueryException("Parameter not found in definition: " + paramName);
-            }
+        // Process parameters and apply defaults
+        PlsqlCallPlan plan = processParameters(context);
 
-            PlsqlParamDef.ParamMode mode = param.mode();
+        log.debug("Executing PL/SQL '{}': {}", context.getDefinition().getName(), plan.getSql());
+        log.debug("Parameters: {}", context.getParams());
 
-            log.debug("Binding parameter {} at index {} with mode {}", paramName, index, mode);
+        // Execute PL/SQL with proper named parameter handling
+        Map<String, Object> outputs = jdbcTemplate.execute(
+                (Connection con) -> con.prepareCall(plan.getSql()),
+                (CallableStatementCallback<Map<String, Object>>) cs -> {
+                    // Timeout applies to this statement only
+                    deadline.attach(cs, context.getDefinition().getQueryTimeout(),
+                            context.getDefinition().getName());
+                    try {
+                        bindParameters(cs, plan, context);
+                        registerOutParameters(cs, plan);
 
-            // Bind IN and INOUT parameters (for each occurrence)
-            if (mode == PlsqlParamDef.ParamMode.IN || mode == PlsqlParamDef.ParamMode.INOUT) {
-                Object value = context.getParam(paramName);
-                if (value != null) {
-                    bindParameterValue(cs, index, value, param.type(), param.sqlType());
-                    log.debug("Bound parameter {} at index {} with value: {}", paramName, index, value);
-                } else {
-                    cs.setNull(index, param.sqlType());
-                    log.debug("Bound parameter {} at index {} with NULL", paramName, index);
-                }
-            }
-            index++;
-        }
-        log.debug("Total parameters bound: {}", index - 1);
-    }
+                        cs.execute();
 
-    private void registerOutParametersInSqlOrder(CallableStatement cs, String sql, PlsqlContext context)
-            throws SQLException {
-        List<String> paramOrder = extractParameterOrder(sql);
-        int index = 1;
+                        return collectOutputs(cs, plan, context);
+                    } finally {
+                        deadline.detach(cs);
+                    }
+                });
 
-        for (String paramName : paramOrder) {
-            PlsqlParamDef<?> param = context.getDefinition().getParameters().get(paramName);
-            if (param == null) {
-                throw new QueryException("Parameter not found in definition: " + paramName);
-            }
+        // Make outputs mutable for post-processors
+        Map<String, Object> mutableOutputs = new HashMap<>(outputs);
 
-            PlsqlParamDef.ParamMode mode = param.mode();
+        // Run post-processors (can modify/add outputs directly)
+        mutableOutputs = runPostProcessors(mutableOutputs, context);
 
-            // Register OUT and INOUT parameters
-            if (mode == PlsqlParamDef.ParamMode.OUT || mode == PlsqlParamDef.ParamMode.INOUT) {
-                cs.registerOutParameter(index, param.sqlType());
-            }
-            index++;
+        return mutableOutputs;
+    }
+
+    private void runPreProcessors(PlsqlContext context) {
+        PlsqlDefinitionBuilder definition = context.getDefinition();
+        if (definition.hasPreProcessors()) {
+            definition.getPreProcessors().forEach(processor -> processor.process(context));
         }
     }
 
-    private Map<String, Object> collectOutputsInSqlOrder(CallableStatement cs, String sql, PlsqlContext context)
-            throws SQLException {
-        Map<String, Object> outputs = new HashMap<>();
-        List<String> paramOrder = extractParameterOrder(sql);
-        int index = 1;
+    private Map<String, Object> runPostProcessors(Map<String, Object> outputs, PlsqlContext context) {
+        PlsqlDefinitionBuilder definition = context.getDefinition();
+        if (!definition.hasPostProcessors()) {
+            return outputs;
+        }
 
-        for (String paramName : paramOrder) {
-            PlsqlParamDef<?> param = context.getDefinition().getParameters().get(paramName);
-            if (param == null) {
-                throw new QueryException("Parameter not found in definition: " + paramName);
-            }
+        Map<String, Object> processedOutputs = outputs;
+        for (var processor : definition.getPostProcessors()) {
+            processedOutputs = processor.process(processedOutputs, context);
+        }
+        return processedOutputs;
+    }
 
-            PlsqlParamDef.ParamMode mode = param.mode();
+    /**
+     * Apply defaults and pick the call plan. Omitted IN parameters with a
+     * PL/SQL default are bound as NULL into the COALESCE compiled into the plan;
+     * omitted INOUT parameters with one select the variant that has the
+     * default inlined.
+     */
+    private PlsqlCallPlan processParameters(PlsqlContext context) {
+        Set<String> inlinedDefaults = null;
 
-            // Collect OUT and INOUT parameters
-            if (mode == PlsqlParamDef.ParamMode.OUT || mode == PlsqlParamDef.ParamMode.INOUT) {
-                Object value = cs.getObject(index);
-                outputs.put(paramName, value);
+        for (PlsqlParamDef<?> param : context.getDefinition().getParameters().values()) {
+            if (!context.hasParam(param.name())) {
+                // Apply PL/SQL default if specified
+                // (IN parameters are bound as NULL into the COALESCE compiled into the plan)
+                if (param.hasPlsqlDefault()) {
+                    if (!PlsqlCallPlan.isDefaultedIn(param)) {
+                        if (inlinedDefaults == null) {
+                            inlinedDefaults = new HashSet<>();
+                        }
+                        inlinedDefaults.add(param.name());
+                    }
+                }
+                // Apply Java default if specified
+                else if (param.hasDefaultValue()) {
+                    context.addParam(param.name(), param.defaultValue());
+                }
+                // Check if required (only for IN and INOUT)
+                else if (param.required() &&
+                        (param.mode() == PlsqlParamDef.ParamMode.IN ||
+                                param.mode() == PlsqlParamDef.ParamMode.INOUT)) {
+                    throw new QueryException("Required parameter missing: " + param.name());
+                }
             }
-            index++;
         }
 
-        return outputs;
+        PlsqlCallPlan plan = context.getDefinition().getCallPlan();
+        return inlinedDefaults != null ? plan.withDefaults(inlinedDefaults) : plan;
     }
 
-    private List<String> extractParameterOrder(String sql) {
-        List<String> paramOrder = new ArrayList<>();
+    private void bindParameters(CallableStatement cs, PlsqlCallPlan plan, PlsqlContext context)
+            throws SQLException {
+        for (PlsqlCallPlan.BindSlot slot : plan.getInSlots()) {
+            slot.bind(cs, context.getParam(slot.name()));
+        }
+        log.debug("Bound {} of {} parameter slots", plan.getInSlots().size(), plan.getSlotCount());
+    }
 
-        Pattern pattern = Pattern.compile(":([a-zA-Z_]\\w*)");
-        Matcher matcher = pattern.matcher(sql);
+    private void registerOutParameters(CallableStatement cs, PlsqlCallPlan plan) throws SQLException {
+        for (PlsqlCallPlan.BindSlot slot : plan.getOutSlots()) {
+            cs.registerOutParameter(slot.index(), slot.sqlType());
+        }
+    }
 
-        while (matcher.find()) {
-            String paramName = matcher.group(1);
-            paramOrder.add(paramName); // Add every occurrence, not just unique names
+    private Map<String, Object> collectOutputs(CallableStatement cs, PlsqlCallPlan plan, PlsqlContext context)
+            throws SQLException {
+        Map<String, Object> outputs = new HashMap<>();
+        for (PlsqlCallPlan.BindSlot slot : plan.getOutSlots()) {
+            if (slot.param().isCursor()) {
+                outputs.put(slot.name(), readCursor(cs, slot, context));
+            } else {
+                outputs.put(slot.name(), cs.getObject(slot.index()));
+            }
         }
+        return outputs;
+    }
 
-        return paramOrder;
+    /**
+     * Map the rows of a REF CURSOR through the parameter's attributes, like
+     * query rows. Rows go to the context's consumer for the parameter when
+     * there is one, and the output is then the row count; otherwise the output
+     * is the list of rows.
+     */
+    private Object readCursor(CallableStatement cs, PlsqlCallPlan.BindSlot slot, PlsqlContext context)
+            throws SQLException {
+        PlsqlParamDef<?> param = slot.param();
+        Consumer<Map<String, Object>> consumer = context.getCursorConsumers().get(param.name());
+        List<Map<String, Object>> rows = consumer == null ? new ArrayList<>() : null;
+        int count = 0;
+
+        try (ResultSet rs = cs.getObject(slot.index(), ResultSet.class)) {
+            if (rs == null) {
+                return consumer == null ? rows : 0;
+            }
+            rs.setFetchSize(param.fetchSize() != null ? param.fetchSize() : DEFAULT_CURSOR_FETCH_SIZE);
+            RowProjection projection = RowProjection.compile(rs.getMetaData(), param.attributes());
+            QueryContext rowContext = QueryContext.builder()
+                    .params(context.getParams())
+                    .deadline(context.getDeadline())
+                    .build();
+            while (rs.next()) {
+                if ((count & 0xFF) == 0) {
+                    context.getDeadline().check(context.getDefinition().getName());
+                }
+                Map<String, Object> row = projection.map(rs, rowContext).toMap();
+                if (consumer != null) {
+                    consumer.accept(row);
+                } else {
+                    rows.add(row);
+                }
+                count++;
+            }
+        }
+        log.debug("Read {} rows from cursor '{}'", count, param.name());
+        return consumer == null ? rows : count;
     }
 
 }
\ No newline at end of file
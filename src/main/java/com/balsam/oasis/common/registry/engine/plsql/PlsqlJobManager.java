@@ -0,0 +1,119 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlJob;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs PL/SQL executions as background jobs.
+ *
+ * <p>
+ * Jobs run on a dedicated bounded pool, so long procedures neither hold
+ * request threads nor crowd out the query execution executor. A full queue
+ * rejects the submission with OVERLOADED. Queued and running jobs are always
+ * kept; finished jobs are retained for {@code retention} after completion, up
+ * to {@code maxRetained}, and are then forgotten.
+ * </p>
+ */
+public class PlsqlJobManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PlsqlJobManager.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, PlsqlJob> active = new ConcurrentHashMap<>();
+    private final Cache<String, PlsqlJob> finished;
+
+    public PlsqlJobManager(int poolSize, int queueCapacity, Duration retention, long maxRetained) {
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("plsql-job-%d").setDaemon(true).build());
+        this.finished = CacheBuilder.newBuilder()
+                .expireAfterWrite(retention)
+                .maximumSize(maxRetained)
+                .build();
+    }
+
+    /**
+     * Queue {@code task} under a new job. The task receives the job's
+     * deadline, through which the job is cancelled.
+     *
+     * @throws QueryException OVERLOADED if the job queue is full
+     */
+    public PlsqlJob submit(String name, ExecutionDeadline deadline,
+            Function<ExecutionDeadline, Map<String, Object>> task) {
+        PlsqlJob job = new PlsqlJob(UUID.randomUUID().toString(), name, deadline);
+        active.put(job.getId(), job);
+        job.completion().thenRun(() -> retire(job));
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            active.remove(job.getId());
+            throw new QueryException(name, QueryException.ErrorCode.OVERLOADED,
+                    "PL/SQL job queue is full, retry later");
+        }
+        log.info("Submitted PL/SQL job {} for '{}'", job.getId(), name);
+        return job;
+    }
+
+    /**
+     * The job, or null when it is unknown or no longer retained
+     */
+    public PlsqlJob get(String id) {
+        PlsqlJob job = active.get(id);
+        return job != null ? job : finished.getIfPresent(id);
+    }
+
+    /**
+     * Cancel a job. Returns the job, or null when it is unknown.
+     */
+    public PlsqlJob cancel(String id) {
+        PlsqlJob job = get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    public void shutdown() {
+        active.values().forEach(PlsqlJob::cancel);
+        executor.shutdownNow();
+    }
+
+    private void run(PlsqlJob job, Function<ExecutionDeadline, Map<String, Object>> task) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            job.succeed(task.apply(job.getDeadline()));
+            log.info("PL/SQL job {} for '{}' succeeded", job.getId(), job.getName());
+        } catch (QueryException e) {
+            job.fail(e);
+            log.warn("PL/SQL job {} for '{}' failed: {}", job.getId(), job.getName(), e.getMessage());
+        } catch (RuntimeException e) {
+            job.fail(new QueryException(job.getName(), QueryException.ErrorCode.EXECUTION_ERROR,
+                    "PL/SQL execution failed: " + e.getMessage(), e));
+            log.error("PL/SQL job {} for '{}' failed", job.getId(), job.getName(), e);
+        }
+    }
+
+    private void retire(PlsqlJob job) {
+        finished.put(job.getId(), job);
+        active.remove(job.getId());
+    }
+}
@@ -0,0 +1,170 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The overloads registered under one PL/SQL name, indexed for resolution.
+ *
+ * <p>
+ * Every IN/INOUT parameter name used by any overload gets a bit. Each
+ * overload is reduced to two bit sets: the parameters that must be supplied
+ * (required, without a Java or PL/SQL default) and all parameters it accepts.
+ * An overload matches a request when the supplied keys known to the name
+ * include all of its required parameters and none it does not accept. Keys no
+ * overload knows are ignored.
+ * </p>
+ *
+ * <p>
+ * Two overloads are ambiguous when some key set matches both, which is the
+ * case exactly when the union of their required sets lies within the
+ * intersection of their accepted sets. Such a pair is rejected when the set is
+ * built, so at most one overload ever matches. Resolutions are memoized by
+ * supplied key set.
+ * </p>
+ */
+final class PlsqlOverloads {
+
+    /** Distinct key sets remembered per name; beyond this, resolution is not memoized */
+    private static final int MAX_MEMO_ENTRIES = 256;
+
+    private final ImmutableList<PlsqlDefinitionBuilder> definitions;
+    private final ImmutableMap<String, Integer> bits;
+    private final ImmutableList<BitSet> required;
+    private final ImmutableList<BitSet> accepted;
+    private final Map<BitSet, Integer> memo = new ConcurrentHashMap<>();
+
+    private PlsqlOverloads(ImmutableList<PlsqlDefinitionBuilder> definitions, ImmutableMap<String, Integer> bits,
+            ImmutableList<BitSet> required, ImmutableList<BitSet> accepted) {
+        this.definitions = definitions;
+        this.bits = bits;
+        this.required = required;
+        this.accepted = accepted;
+    }
+
+    /**
+     * Index the overloads of one name.
+     *
+     * @throws IllegalStateException if two overloads are ambiguous
+     */
+    static PlsqlOverloads of(List<PlsqlDefinitionBuilder> definitions) {
+        Map<String, Integer> bits = new LinkedHashMap<>();
+        for (PlsqlDefinitionBuilder definition : definitions) {
+            for (PlsqlParamDef<?> param : definition.getParameters().values()) {
+                if (isInput(param)) {
+                    bits.putIfAbsent(param.name(), bits.size());
+                }
+            }
+        }
+
+        ImmutableList.Builder<BitSet> required = ImmutableList.builder();
+        ImmutableList.Builder<BitSet> accepted = ImmutableList.builder();
+        for (PlsqlDefinitionBuilder definition : definitions) {
+            BitSet requiredBits = new BitSet(bits.size());
+            BitSet acceptedBits = new BitSet(bits.size());
+            for (PlsqlParamDef<?> param : definition.getParameters().values()) {
+                if (isInput(param)) {
+                    int bit = bits.get(param.name());
+                    acceptedBits.set(bit);
+                    if (param.required() && !param.hasDefaultValue() && !param.hasPlsqlDefault()) {
+                        requiredBits.set(bit);
+                    }
+                }
+            }
+            required.add(requiredBits);
+            accepted.add(acceptedBits);
+        }
+
+        PlsqlOverloads overloads = new PlsqlOverloads(ImmutableList.copyOf(definitions), ImmutableMap.copyOf(bits),
+                required.build(), accepted.build());
+        overloads.checkAmbiguity();
+        return overloads;
+    }
+
+    ImmutableList<PlsqlDefinitionBuilder> getDefinitions() {
+        return definitions;
+    }
+
+    int size() {
+        return definitions.size();
+    }
+
+    /**
+     * The overload matching the supplied parameter names, or null when none
+     * does
+     */
+    PlsqlDefinitionBuilder resolve(Map<String, Object> params) {
+        if (definitions.size() == 1) {
+            return definitions.get(0);
+        }
+
+        BitSet supplied = new BitSet(bits.size());
+        for (String key : params.keySet()) {
+            Integer bit = bits.get(key);
+            if (bit != null) {
+                supplied.set(bit);
+            }
+        }
+
+        Integer index = memo.get(supplied);
+        if (index == null) {
+            index = match(supplied);
+            if (memo.size() < MAX_MEMO_ENTRIES) {
+                memo.put(supplied, index);
+            }
+        }
+        return index >= 0 ? definitions.get(index) : null;
+    }
+
+    private int match(BitSet supplied) {
+        for (int i = 0; i < definitions.size(); i++) {
+            if (contains(supplied, required.get(i)) && contains(accepted.get(i), supplied)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void checkAmbiguity() {
+        for (int i = 0; i < definitions.size(); i++) {
+            for (int j = i + 1; j < definitions.size(); j++) {
+                BitSet union = (BitSet) required.get(i).clone();
+                union.or(required.get(j));
+                BitSet intersection = (BitSet) accepted.get(i).clone();
+                intersection.and(accepted.get(j));
+                if (contains(intersection, union)) {
+                    throw new IllegalStateException(String.format(
+                            "Ambiguous PL/SQL overloads of '%s': overloads %d and %d both match parameters %s",
+                            definitions.get(i).getName(), i + 1, j + 1, names(union)));
+                }
+            }
+        }
+    }
+
+    private String names(BitSet set) {
+        return bits.entrySet().stream()
+                .filter(entry -> set.get(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList()
+                .toString();
+    }
+
+    /** Whether {@code set} contains every bit of {@code subset} */
+    private static boolean contains(BitSet set, BitSet subset) {
+        BitSet missing = (BitSet) subset.clone();
+        missing.andNot(set);
+        return missing.isEmpty();
+    }
+
+    private static boolean isInput(PlsqlParamDef<?> param) {
+        return param.mode() == PlsqlParamDef.ParamMode.IN || param.mode() == PlsqlParamDef.ParamMode.INOUT;
+    }
+}
@@ -1,12 +1,10 @@
 package com.balsam.oasis.common.registry.engine.plsql;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,112 +12,142 @@ import org.slf4j.LoggerFactory;
 import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
 import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
-
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Registry of PL/SQL definitions, with overloads kept in registration order.
+ *
+ * <p>
+ * Like {@code QueryRegistryImpl}, lookups read an immutable snapshot behind a
+ * volatile reference and never lock; register and {@link #replaceAll} copy the
+ * snapshot and publish a new one. The overloads of each name are indexed by
+ * {@link PlsqlOverloads}, which also rejects ambiguous overloads when they are
+ * registered.
+ * </p>
+ */
 public class PlsqlRegistryImpl {
     private static final Logger log = LoggerFactory.getLogger(PlsqlRegistryImpl.class);
 
-    private final ConcurrentMap<String, List<PlsqlDefinitionBuilder>> registry = new ConcurrentHashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object writeLock = new Object();
+    private volatile ImmutableMap<String, PlsqlOverloads> registry = ImmutableMap.of();
 
     public void register(PlsqlDefinitionBuilder definition) {
         validateDefinition(definition);
 
         String name = definition.getName();
-        lock.writeLock().lock();
-        try {
-            registry.computeIfAbsent(name, k -> new ArrayList<>()).add(definition);
-
-            StringBuilder registrationLog = new StringBuilder();
-            registrationLog.append("Registered PL/SQL '" + name + "': ");
-            registrationLog.append("parameters=").append(definition.getParameters().size());
-
-            if (definition.hasParameters()) {
-                long inParams = definition.getParameters().values().stream()
-                        .filter(p -> p.mode() == PlsqlParamDef.ParamMode.IN
-                                || p.mode() == PlsqlParamDef.ParamMode.INOUT)
-                        .count();
-                long outParams = definition.getParameters().values().stream()
-                        .filter(p -> p.mode() == PlsqlParamDef.ParamMode.OUT
-                                || p.mode() == PlsqlParamDef.ParamMode.INOUT)
-                        .count();
-                registrationLog.append(" (IN=").append(inParams)
-                        .append(", OUT=").append(outParams).append(")");
-            }
-
-            // Check for overloads
-            List<PlsqlDefinitionBuilder> overloads = registry.get(name);
-            if (overloads.size() > 1) {
-                registrationLog.append(", overloads=").append(overloads.size());
-            }
-
-            log.info(registrationLog.toString());
-        } finally {
-            lock.writeLock().unlock();
+        int overloads;
+        synchronized (writeLock) {
+            PlsqlOverloads existing = registry.get(name);
+            PlsqlOverloads candidates = PlsqlOverloads.of(ImmutableList.<PlsqlDefinitionBuilder>builder()
+                    .addAll(existing != null ? existing.getDefinitions() : ImmutableList.of())
+                    .add(definition)
+                    .build());
+            Map<String, PlsqlOverloads> updated = new LinkedHashMap<>(registry);
+            updated.put(name, candidates);
+            registry = ImmutableMap.copyOf(updated);
+            overloads = candidates.size();
+        }
+
+        StringBuilder registrationLog = new StringBuilder();
+        registrationLog.append("Registered PL/SQL '" + name + "': ");
+        registrationLog.append("parameters=").append(definition.getParameters().size());
+
+        if (definition.hasParameters()) {
+            long inParams = definition.getParameters().values().stream()
+                    .filter(p -> p.mode() == PlsqlParamDef.ParamMode.IN
+                            || p.mode() == PlsqlParamDef.ParamMode.INOUT)
+                    .count();
+            long outParams = definition.getParameters().values().stream()
+                    .filter(p -> p.mode() == PlsqlParamDef.ParamMode.OUT
+                            || p.mode() == PlsqlParamDef.ParamMode.INOUT)
+                    .count();
+            registrationLog.append(" (IN=").append(inParams)
+                    .append(", OUT=").append(outParams).append(")");
         }
+
+        // Check for overloads
+        if (overloads > 1) {
+            registrationLog.append(", overloads=").append(overloads);
+        }
+
+        log.info(registrationLog.toString());
+    }
+
+    /**
+     * Atomically replace all registered blocks. Definitions sharing a name
+     * become overloads in the order given. Nothing is published unless every
+     * definition is valid and no overloads are ambiguous.
+     *
+     * @return the number of definitions registered before the swap
+     */
+    public int replaceAll(Collection<PlsqlDefinitionBuilder> definitions) {
+        Map<String, List<PlsqlDefinitionBuilder>> grouped = new LinkedHashMap<>();
+        for (PlsqlDefinitionBuilder definition : definitions) {
+            validateDefinition(definition);
+            grouped.computeIfAbsent(definition.getName(), k -> new ArrayList<>()).add(definition);
+        }
+        ImmutableMap.Builder<String, PlsqlOverloads> replacement = ImmutableMap.builder();
+        grouped.forEach((name, candidates) -> replacement.put(name, PlsqlOverloads.of(candidates)));
+
+        int previous;
+        synchronized (writeLock) {
+            previous = size();
+            registry = replacement.build();
+        }
+        log.info("Replaced {} PL/SQL definitions with {}", previous, definitions.size());
+        return previous;
+    }
+
+    public void clear() {
+        int count;
+        synchronized (writeLock) {
+            count = size();
+            registry = ImmutableMap.of();
+        }
+        log.info("Cleared {} PL/SQL definitions from registry", count);
     }
 
     public PlsqlDefinitionBuilder get(String name) {
         if (name == null) {
             return null;
         }
-        lock.readLock().lock();
-        try {
-            List<PlsqlDefinitionBuilder> candidates = registry.get(name);
-            if (candidates == null || candidates.isEmpty()) {
-                return null;
-            }
-            if (candidates.size() == 1) {
-                return candidates.get(0);
-            }
-            // If multiple overloads exist without parameters, return the first one
-            return candidates.get(0);
-        } finally {
-            lock.readLock().unlock();
-        }
+        PlsqlOverloads overloads = registry.get(name);
+        // If multiple overloads exist without parameters, return the first one
+        return overloads != null ? overloads.getDefinitions().get(0) : null;
+    }
+
+    /**
+     * Every overload registered under the name, in registration order
+     */
+    public List<PlsqlDefinitionBuilder> getOverloads(String name) {
+        PlsqlOverloads overloads = name != null ? registry.get(name) : null;
+        return overloads != null ? overloads.getDefinitions() : ImmutableList.of();
     }
 
     public PlsqlDefinitionBuilder resolve(String name, Map<String, Object> params) {
         if (name == null) {
             return null;
         }
-        lock.readLock().lock();
-        try {
-            List<PlsqlDefinitionBuilder> candidates = registry.get(name);
-            if (candidates == null || candidates.isEmpty()) {
-                return null;
-            }
-
-            if (candidates.size() == 1) {
-                return candidates.get(0);
-            }
-
-            // Find best match based on provided parameters
-            return candidates.stream()
-                    .filter(def -> matchesParameters(def, params))
-                    .findFirst()
-                    .orElseThrow(() -> new QueryException(name, QueryException.ErrorCode.VALIDATION_ERROR,
-                            "No matching PL/SQL parameters found for: " + name + " with params: " + params.keySet()));
-        } finally {
-            lock.readLock().unlock();
+        PlsqlOverloads overloads = registry.get(name);
+        if (overloads == null) {
+            return null;
+        }
+
+        PlsqlDefinitionBuilder definition = overloads.resolve(params);
+        if (definition == null) {
+            throw new QueryException(name, QueryException.ErrorCode.VALIDATION_ERROR,
+                    "No matching PL/SQL parameters found for: " + name + " with params: " + params.keySet());
         }
+        return definition;
     }
 
     public int size() {
-        lock.readLock().lock();
-        try {
-            return registry.values().stream().mapToInt(List::size).sum();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.values().stream().mapToInt(PlsqlOverloads::size).sum();
     }
 
     public boolean isEmpty() {
-        lock.readLock().lock();
-        try {
-            return registry.isEmpty();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.isEmpty();
     }
 
     private void validateDefinition(PlsqlDefinitionBuilder definition) {
@@ -135,12 +163,4 @@ public class PlsqlRegistryImpl {
             throw new IllegalArgumentException("PlsqlDefinition PL/SQL is required for: " + name);
         }
     }
-
-    private boolean matchesParameters(PlsqlDefinitionBuilder def, Map<String, Object> params) {
-        // Check if all required IN/INOUT parameters are provided or have defaults
-        return def.getParameters().values().stream()
-                .filter(p -> p.mode() == PlsqlParamDef.ParamMode.IN || p.mode() == PlsqlParamDef.ParamMode.INOUT)
-                .allMatch(p -> !p.required() || p.hasDefaultValue() || p.hasPlsqlDefault()
-                        || params.containsKey(p.name()));
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.definition.FilterOp;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Primary key lookups, one key or many per statement.
+ *
+ * <p>
+ * {@link #findAll} resolves a list of keys with a single IN-list on the
+ * definition's primary key attribute and returns the rows in key order.
+ * {@link #find} resolves one key, but holds it for up to {@code window} so
+ * that concurrent lookups against the same query and parameters are merged
+ * into one {@link #findAll} call, in the manner of a DataLoader. A batch is
+ * sent early once it reaches {@code maxBatchSize} keys.
+ * </p>
+ *
+ * <p>
+ * Each caller of {@link #find} waits no longer than its own deadline. The
+ * merged statement runs under the latest deadline of its callers, or none if
+ * any caller has none, and a key matched by more than one row fails that
+ * key's callers as {@code executeSingle} would.
+ * </p>
+ */
+public class KeyLookupBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyLookupBatcher.class);
+
+    /** Oracle accepts at most 1000 expressions in an IN-list */
+    private static final int MAX_KEYS_PER_STATEMENT = 1000;
+
+    private final QueryExecutorImpl queryExecutor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Map<BatchKey, PendingBatch> pending = new ConcurrentHashMap<>();
+
+    public KeyLookupBatcher(QueryExecutorImpl queryExecutor, Duration window, int maxBatchSize) {
+        this.queryExecutor = queryExecutor;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_KEYS_PER_STATEMENT));
+        this.scheduler = windowNanos > 0
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("key-lookup-batcher-%d").setDaemon(true).build())
+                : null;
+    }
+
+    /**
+     * Resolve many keys with one statement. The result is aligned with
+     * {@code keys}: the row for {@code keys.get(i)} is at index {@code i}, null
+     * when no row has that key.
+     */
+    public List<QueryRow> findAll(QueryDefinitionBuilder definition, List<?> keys, Map<String, Object> params,
+            ExecutionDeadline deadline) {
+        Map<Object, List<QueryRow>> byKey = lookup(definition, keys, params, deadline);
+        List<QueryRow> result = new ArrayList<>(keys.size());
+        keys.forEach(key -> {
+            List<QueryRow> rows = byKey.get(normalize(key));
+            result.add(rows != null ? rows.get(0) : null);
+        });
+        return result;
+    }
+
+    /**
+     * Resolve one key, merged with other lookups arriving within the window.
+     * Completes with null when no row has the key, and with a
+     * {@link QueryException.ErrorCode#TIMEOUT} once {@code deadline} passes.
+     */
+    public CompletableFuture<QueryRow> find(QueryDefinitionBuilder definition, Map<String, Object> params,
+            Object key, ExecutionDeadline deadline) {
+        deadline.check(definition.getName());
+        CompletableFuture<QueryRow> future;
+        if (scheduler == null) {
+            future = CompletableFuture.supplyAsync(
+                    () -> single(definition, key, lookup(definition, List.of(key), params, deadline)),
+                    queryExecutor.getAsyncExecutor());
+        } else {
+            future = enqueue(new BatchKey(definition, new HashMap<>(params)), key, deadline);
+        }
+        if (!deadline.hasDeadline()) {
+            return future;
+        }
+        return future.orTimeout(Math.max(1, deadline.remainingMillis()), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> CompletableFuture.failedFuture(
+                        error instanceof TimeoutException
+                                ? new QueryException(definition.getName(), QueryException.ErrorCode.TIMEOUT,
+                                        "Request deadline exceeded")
+                                : error));
+    }
+
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<QueryRow> enqueue(BatchKey batchKey, Object key, ExecutionDeadline deadline) {
+        while (true) {
+            PendingBatch batch = pending.computeIfAbsent(batchKey, this::openBatch);
+            CompletableFuture<QueryRow> future = batch.add(key, deadline);
+            if (future != null) {
+                if (batch.size() >= maxBatchSize) {
+                    flush(batch);
+                }
+                return future;
+            }
+            // Raced with a flush of this batch, start a new one
+            pending.remove(batchKey, batch);
+        }
+    }
+
+    /**
+     * The rows matching {@code keys}, grouped by normalized key
+     */
+    private Map<Object, List<QueryRow>> lookup(QueryDefinitionBuilder definition, List<?> keys,
+            Map<String, Object> params, ExecutionDeadline deadline) {
+        AttributeDef<?> keyAttribute = definition.getPrimaryKeyAttribute();
+        if (keyAttribute == null) {
+            throw new QueryException(definition.getName(), QueryException.ErrorCode.DEFINITION_ERROR,
+                    "Key lookup needs exactly one primaryKey attribute");
+        }
+        int maxKeys = Math.min(MAX_KEYS_PER_STATEMENT, definition.getMaxPageSize());
+        if (keys.size() > maxKeys) {
+            throw new QueryException(definition.getName(), QueryException.ErrorCode.VALIDATION_ERROR,
+                    String.format("Lookup of %d keys exceeds maximum %d", keys.size(), maxKeys));
+        }
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+
+        // Distinct keys, keeping the value as sent for binding
+        Map<Object, Object> distinct = new LinkedHashMap<>();
+        keys.forEach(key -> distinct.putIfAbsent(normalize(key), key));
+
+        QueryData data = queryExecutor.execute(definition)
+                .withParams(params)
+                .withFilter(keyAttribute.name(), FilterOp.IN, new ArrayList<Object>(distinct.values()))
+                .includeMetadata(false)
+                .withDeadline(deadline)
+                .execute();
+
+        Map<Object, List<QueryRow>> byKey = new HashMap<>();
+        for (QueryRow row : data.getRows()) {
+            byKey.computeIfAbsent(normalize(row.get(keyAttribute.name())), k -> new ArrayList<>()).add(row);
+        }
+        return byKey;
+    }
+
+    /**
+     * The one row for {@code key}, null when there is none
+     */
+    private static QueryRow single(QueryDefinitionBuilder definition, Object key,
+            Map<Object, List<QueryRow>> byKey) {
+        List<QueryRow> rows = byKey.get(normalize(key));
+        if (rows == null) {
+            return null;
+        }
+        if (rows.size() > 1) {
+            throw new QueryException(definition.getName(), QueryException.ErrorCode.VALIDATION_ERROR,
+                    String.format("FindByKey query returned %d results, expected 1", rows.size()));
+        }
+        return rows.get(0);
+    }
+
+    private PendingBatch openBatch(BatchKey batchKey) {
+        PendingBatch batch = new PendingBatch(batchKey);
+        scheduler.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private void flush(PendingBatch batch) {
+        if (!batch.close()) {
+            return;
+        }
+        pending.remove(batch.batchKey, batch);
+        try {
+            queryExecutor.getAsyncExecutor().execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            run(batch);
+        }
+    }
+
+    private void run(PendingBatch batch) {
+        QueryDefinitionBuilder definition = batch.batchKey.definition();
+        List<Object> keys = new ArrayList<>(batch.keys.values());
+        log.debug("Resolving {} batched keys for query '{}'", keys.size(), definition.getName());
+        try {
+            Map<Object, List<QueryRow>> byKey = lookup(definition, keys, batch.batchKey.params(),
+                    batch.deadline());
+            for (Object key : keys) {
+                List<CompletableFuture<QueryRow>> waiters = batch.waiters.get(normalize(key));
+                try {
+                    QueryRow row = single(definition, key, byKey);
+                    waiters.forEach(future -> future.complete(row));
+                } catch (QueryException e) {
+                    waiters.forEach(future -> future.completeExceptionally(e));
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    /**
+     * Keys arrive as strings from HTTP and come back as numbers from the
+     * database; compare them as text, with numbers in plain notation.
+     */
+    private static Object normalize(Object key) {
+        if (key instanceof Number number && !(key instanceof Double) && !(key instanceof Float)) {
+            return new BigDecimal(number.toString()).stripTrailingZeros().toPlainString();
+        }
+        return key != null ? key.toString() : null;
+    }
+
+    private record BatchKey(QueryDefinitionBuilder definition, Map<String, Object> params) {
+    }
+
+    /**
+     * Keys collected for one query and parameter set until the window closes
+     */
+    private static final class PendingBatch {
+        private final BatchKey batchKey;
+        private final Map<Object, Object> keys = new LinkedHashMap<>();
+        private final Map<Object, List<CompletableFuture<QueryRow>>> waiters = new HashMap<>();
+        private long latestDeadlineNanos = Long.MIN_VALUE;
+        private boolean unbounded;
+        private boolean closed;
+
+        private PendingBatch(BatchKey batchKey) {
+            this.batchKey = batchKey;
+        }
+
+        synchronized CompletableFuture<QueryRow> add(Object key, ExecutionDeadline deadline) {
+            if (closed) {
+                return null;
+            }
+            if (deadline.hasDeadline()) {
+                latestDeadlineNanos = Math.max(latestDeadlineNanos,
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline.remainingMillis()));
+            } else {
+                unbounded = true;
+            }
+            Object normalized = normalize(key);
+            keys.putIfAbsent(normalized, key);
+            CompletableFuture<QueryRow> future = new CompletableFuture<>();
+            waiters.computeIfAbsent(normalized, k -> new ArrayList<>()).add(future);
+            return future;
+        }
+
+        /**
+         * The latest deadline of the callers, as a handle of the batch's own
+         */
+        synchronized ExecutionDeadline deadline() {
+            return unbounded ? ExecutionDeadline.none()
+                    : ExecutionDeadline.after(Duration.ofNanos(latestDeadlineNanos - System.nanoTime()));
+        }
+
+        synchronized int size() {
+            return keys.size();
+        }
+
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Short-lived cache for total count queries.
+ *
+ * <p>
+ * Keys are built from the query name, the count SQL and its bind values. The
+ * count SQL already excludes sorting and pagination, so every page of the same
+ * filtered result set shares one entry. This cache is independent of the
+ * result cache configured through {@code CacheConfig}.
+ * </p>
+ */
+public class QueryCountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountCache.class);
+
+    private final Duration defaultTtl;
+    private final Cache<String, Entry> cache;
+
+    public QueryCountCache(Duration defaultTtl, long maximumSize) {
+        this.defaultTtl = defaultTtl != null ? defaultTtl : Duration.ZERO;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * TTL for a definition: its own countCacheTTL, otherwise the configured default.
+     * A zero or negative TTL disables count caching.
+     */
+    public Duration ttlFor(QueryDefinitionBuilder definition) {
+        Duration ttl = definition.getCountCacheTTL();
+        return ttl != null ? ttl : defaultTtl;
+    }
+
+    public boolean isEnabled(QueryDefinitionBuilder definition) {
+        Duration ttl = ttlFor(definition);
+        return !ttl.isZero() && !ttl.isNegative();
+    }
+
+    public String key(QueryDefinitionBuilder definition, String countSql, Map<String, Object> params) {
+        Map<String, Object> sortedParams = new TreeMap<>();
+        params.forEach((name, value) -> {
+            if (value != null) {
+                sortedParams.put(name, value);
+            }
+        });
+        return definition.getName() + '\n' + countSql + '\n' + sortedParams;
+    }
+
+    public Integer get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.nanoTime()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry.count();
+    }
+
+    public void put(String key, int count, Duration ttl) {
+        cache.put(key, new Entry(count, System.nanoTime() + ttl.toNanos()));
+    }
+
+    /**
+     * Drop every cached count for a query, e.g. after its data was modified.
+     */
+    public void invalidate(String queryName) {
+        String prefix = queryName + '\n';
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("Invalidated cached counts for query '{}'", queryName);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record Entry(int count, long expiresAt) {
+    }
+}
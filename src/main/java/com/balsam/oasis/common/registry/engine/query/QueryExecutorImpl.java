@@ -1,28 +1,45 @@
 package com.balsam.oasis.common.registry.engine.query;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
 import com.balsam.oasis.common.registry.domain.common.QueryData;
 import com.balsam.oasis.common.registry.domain.common.SqlResult;
 import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.definition.ChildQueryDef;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
 import com.balsam.oasis.common.registry.domain.execution.QueryContext;
 import com.balsam.oasis.common.registry.domain.execution.QueryExecution;
 import com.balsam.oasis.common.registry.domain.metadata.QueryMetadata;
+import com.balsam.oasis.common.registry.engine.cache.CachedResult;
+import com.balsam.oasis.common.registry.engine.cache.QueryResultCache;
+import com.balsam.oasis.common.registry.engine.concurrency.Bulkhead;
+import com.balsam.oasis.common.registry.engine.concurrency.BulkheadRegistry;
+import com.balsam.oasis.common.registry.engine.concurrency.ConcurrencyLimiter;
+import com.balsam.oasis.common.registry.engine.concurrency.LaneScheduler;
+import com.balsam.oasis.common.registry.engine.routing.ReadRouting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /**
  * Default implementation of QueryExecutor using JdbcTemplate
@@ -31,16 +48,45 @@ public class QueryExecutorImpl {
 
     private static final Logger log = LoggerFactory.getLogger(QueryExecutorImpl.class);
 
+    /** Oracle accepts at most 1000 expressions in an IN-list */
+    private static final int CHILD_KEYS_PER_STATEMENT = 1000;
+
+    /** Guards against definitions whose children refer back to themselves */
+    private static final int MAX_CHILD_DEPTH = 5;
+
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final QueryRegistryImpl queryRegistry;
     private final QuerySqlBuilder sqlBuilder;
-
-    public QueryExecutorImpl(JdbcTemplate jdbcTemplate, QuerySqlBuilder sqlBuilder, QueryRegistryImpl queryRegistry) {
+    private final QueryCountCache countCache;
+    private final QueryResultCache resultCache;
+    private final Executor asyncExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BulkheadRegistry bulkheads = new BulkheadRegistry();
+    private final ConcurrencyLimiter limiter;
+    private final LaneScheduler lanes;
+
+    public QueryExecutorImpl(JdbcTemplate jdbcTemplate, QuerySqlBuilder sqlBuilder, QueryRegistryImpl queryRegistry,
+            QueryCountCache countCache, QueryResultCache resultCache, Executor asyncExecutor,
+            PlatformTransactionManager transactionManager, ConcurrencyLimiter limiter, LaneScheduler lanes) {
         this.jdbcTemplate = jdbcTemplate;
         this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
         this.queryRegistry = queryRegistry;
         this.sqlBuilder = sqlBuilder;
+        this.countCache = countCache;
+        this.resultCache = resultCache;
+        this.asyncExecutor = asyncExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.limiter = limiter;
+        this.lanes = lanes;
+    }
+
+    /**
+     * Executor used by {@link QueryExecution#executeAsync()}
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
     }
 
     public QueryExecution execute(String queryName) {
@@ -60,9 +106,15 @@ public class QueryExecutorImpl {
     }
 
     /**
-     * Internal execution method
+     * Internal execution method.
+     *
+     * <p>
+     * The read-only transaction, and with it the pooled connection, is only
+     * opened after the result cache has missed and the definition's bulkhead
+     * and the workload lane have granted a slot, so cache hits and queued
+     * requests hold no connection.
+     * </p>
      */
-    @Transactional(readOnly = true)
     public QueryData doExecute(QueryContext context) {
         try {
             // Run pre-processors
@@ -73,36 +125,61 @@ public class QueryExecutorImpl {
             String finalSql = sqlResult.getSql();
             Map<String, Object> params = sqlResult.getParams();
 
-            log.debug("Executing query '{}': {}", context.getDefinition().getName(), finalSql);
-            log.debug("Parameters: {}", params);
-
-            // Calculate total count if pagination is used
-            if (context.hasPagination() && context.getDefinition().isPaginationEnabled()) {
-                int totalCount = executeTotalCountQuery(context, params);
-                context.setTotalCount(totalCount);
+            // Serve from the result cache when enabled for this query
+            QueryDefinitionBuilder definition = context.getDefinition();
+            String cacheKey = null;
+            if (definition.hasCacheConfig()) {
+                cacheKey = resultCache.key(context, finalSql, params);
+                CachedResult cached = resultCache.get(definition, cacheKey, context);
+                if (cached != null) {
+                    log.debug("Result cache hit for query '{}'", definition.getName());
+                    return fromCache(context, cached);
+                }
             }
 
-            // Execute query
-            List<QueryRow> rows = executeQuery(context, finalSql, params);
+            // Don't start database work for a request that has already given up
+            context.getDeadline().check(definition.getName());
 
-            // Run row processors (includes virtual attribute calculation)
-            rows = runRowProcessors(context, rows);
-
-            // Build initial result
-            QueryData result = QueryData.builder()
-                    .rows(ImmutableList.copyOf(rows))
-                    .context(context)
-                    .build();
-
-            // Skip result-aware parameter processors - parameters were already processed during validation
-            // This prevents double-processing bugs where processors receive non-string values
-
-            // Run post-processors
-            result = runPostProcessors(context, result);
+            // Expensive queries may not take more than their share of the pool
+            Bulkhead bulkhead = bulkheads.forDefinition(definition, definition.getConcurrencyConfig());
+            if (bulkhead != null) {
+                bulkhead.acquire(definition.getName(), context.getDeadline());
+            }
+            QueryData result;
+            try {
+                // Interactive work is scheduled ahead of batch and export work
+                ExecutionLane lane = context.getEffectiveLane();
+                if (lanes != null) {
+                    lanes.acquire(lane, definition.getName(), context.getDeadline());
+                }
+                try {
+                    // Shed load early when the database is saturated
+                    ConcurrencyLimiter.Permit permit = limiter.acquire(definition, definition.getName());
+                    boolean dropped = false;
+                    try {
+                        // Reads go to a replica unless the query must see its own writes
+                        result = ReadRouting.call(readPreference(definition),
+                                () -> readOnlyTransaction.execute(status -> executeOnDatabase(context, finalSql, params)));
+                    } catch (RuntimeException e) {
+                        dropped = isCongestion(context, e);
+                        throw e;
+                    } finally {
+                        permit.release(dropped);
+                    }
+                } finally {
+                    if (lanes != null) {
+                        lanes.release(lane);
+                    }
+                }
+            } finally {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
 
-            // Add metadata if requested
-            if (context.isIncludeMetadata()) {
-                result = addMetadata(context, result);
+            if (cacheKey != null) {
+                CachedResult cached = resultCache.put(definition, cacheKey, result, context.getTotalCount());
+                result = result.toBuilder().digest(cached.digest()).expiresAt(cached.expiresAt()).build();
             }
 
             return result;
@@ -124,6 +201,165 @@ public class QueryExecutorImpl {
         }
     }
 
+    private QueryData executeOnDatabase(QueryContext context, String finalSql, Map<String, Object> params) {
+        log.debug("Executing query '{}': {}", context.getDefinition().getName(), finalSql);
+        log.debug("Parameters: {}", params);
+
+        // Calculate total count if pagination is used
+        if (context.hasPagination() && context.getDefinition().isPaginationEnabled()) {
+            int totalCount = executeTotalCountQuery(context, params);
+            context.setTotalCount(totalCount);
+        }
+
+        // Execute query
+        List<QueryRow> rows = executeQuery(context, finalSql, params);
+
+        // Fetch detail rows for the whole page at once, before row processors see them
+        attachChildren(context, rows, 0);
+
+        // Run row processors (includes virtual attribute calculation)
+        rows = runRowProcessors(context, rows);
+
+        // Build initial result
+        QueryData result = QueryData.builder()
+                .rows(ImmutableList.copyOf(rows))
+                .context(context)
+                .build();
+
+        // Skip result-aware parameter processors - parameters were already processed during validation
+        // This prevents double-processing bugs where processors receive non-string values
+
+        // Run post-processors
+        result = runPostProcessors(context, result);
+
+        // Add metadata if requested
+        if (context.isIncludeMetadata()) {
+            result = addMetadata(context, result);
+        }
+        return result;
+    }
+
+    /**
+     * Run each child query once per page (per 1000 keys) with the distinct
+     * parent keys bound as a list, then set the grouped child rows on every
+     * parent row. Runs in the parent's transaction and under its deadline.
+     */
+    private void attachChildren(QueryContext context, List<QueryRow> rows, int depth) {
+        QueryDefinitionBuilder definition = context.getDefinition();
+        if (!definition.hasChildren() || rows.isEmpty()) {
+            return;
+        }
+        if (depth >= MAX_CHILD_DEPTH) {
+            throw new QueryException(definition.getName(), QueryException.ErrorCode.EXECUTION_ERROR,
+                    "Child queries nested deeper than " + MAX_CHILD_DEPTH + " levels");
+        }
+
+        for (ChildQueryDef child : definition.getChildren().values()) {
+            QueryDefinitionBuilder childDefinition = queryRegistry.get(child.queryName());
+            if (childDefinition == null) {
+                throw new QueryException(definition.getName(), QueryException.ErrorCode.QUERY_NOT_FOUND,
+                        "Child query not found: " + child.queryName());
+            }
+
+            // Distinct parent keys, keeping the value as read for binding
+            Map<Object, Object> keys = new LinkedHashMap<>();
+            for (QueryRow row : rows) {
+                Object key = row.get(child.parentKey());
+                if (key != null) {
+                    keys.putIfAbsent(groupKey(key), key);
+                }
+            }
+
+            Map<Object, List<Map<String, Object>>> grouped = new HashMap<>();
+            for (List<Object> chunk : Iterables.partition(keys.values(), CHILD_KEYS_PER_STATEMENT)) {
+                Map<String, Object> childParams = new HashMap<>();
+                childParams.put(child.keysParam(), chunk);
+                QueryContext childContext = QueryContext.builder()
+                        .definition(childDefinition)
+                        .params(childParams)
+                        .includeMetadata(false)
+                        .deadline(context.getDeadline())
+                        .build();
+
+                for (QueryRow childRow : fetchChildRows(childContext, depth + 1)) {
+                    grouped.computeIfAbsent(groupKey(childRow.get(child.childKey())), key -> new ArrayList<>())
+                            .add(childRow.toMap());
+                }
+            }
+            log.debug("Fetched children '{}' of query '{}' for {} keys", child.name(), definition.getName(),
+                    keys.size());
+
+            for (QueryRow row : rows) {
+                Object key = row.get(child.parentKey());
+                row.set(child.name(), key != null ? grouped.getOrDefault(groupKey(key), List.of()) : List.of());
+            }
+        }
+    }
+
+    private List<QueryRow> fetchChildRows(QueryContext childContext, int depth) {
+        runPreProcessors(childContext);
+        SqlResult sqlResult = sqlBuilder.build(childContext);
+        log.debug("Executing child query '{}': {}", childContext.getDefinition().getName(), sqlResult.getSql());
+
+        List<QueryRow> rows = executeQuery(childContext, sqlResult.getSql(), sqlResult.getParams());
+        attachChildren(childContext, rows, depth);
+        return runRowProcessors(childContext, rows);
+    }
+
+    /**
+     * Numbers read from different columns may differ in type or scale
+     */
+    private static Object groupKey(Object value) {
+        if (value instanceof Number number && !(value instanceof Double) && !(value instanceof Float)) {
+            return new BigDecimal(number.toString()).stripTrailingZeros();
+        }
+        return value;
+    }
+
+    private static ReadRouting.ReadPreference readPreference(QueryDefinitionBuilder definition) {
+        return definition.isReadYourWrites()
+                ? ReadRouting.ReadPreference.PRIMARY
+                : ReadRouting.ReadPreference.replica(definition.getMaxReplicaLag());
+    }
+
+    /**
+     * Failures that signal an overloaded database rather than a bad request
+     */
+    private boolean isCongestion(QueryContext context, RuntimeException e) {
+        if (e instanceof CannotGetJdbcConnectionException || isTimeout(context, e)) {
+            return true;
+        }
+        return e instanceof QueryException queryException
+                && QueryException.ErrorCode.TIMEOUT.getCode().equals(queryException.getErrorCode());
+    }
+
+    /**
+     * Timeouts and cancellations get their own error code so callers can tell
+     * them apart from SQL errors.
+     */
+    private boolean isTimeout(QueryContext context, Exception e) {
+        return e instanceof QueryTimeoutException || context.getDeadline().isExpired();
+    }
+
+    /**
+     * Rebuild a response from a cached result for the current request context
+     */
+    private QueryData fromCache(QueryContext context, CachedResult cached) {
+        context.setTotalCount(cached.totalCount());
+
+        QueryData result = QueryData.builder()
+                .rows(cached.rows())
+                .context(context)
+                .digest(cached.digest())
+                .expiresAt(cached.expiresAt())
+                .build();
+
+        if (context.isIncludeMetadata()) {
+            result = addMetadata(context, result);
+        }
+        return result;
+    }
+
     private void runPreProcessors(QueryContext context) {
         QueryDefinitionBuilder definition = context.getDefinition();
         if (definition.hasPreProcessors()) {
@@ -136,16 +372,15 @@ public class QueryExecutorImpl {
 
     private List<QueryRow> executeQuery(QueryContext context, String sql, Map<String, Object> params) {
         try {
-            // Set query timeout if configured
-            if (context.getDefinition().getQueryTimeout() != null) {
-                jdbcTemplate.setQueryTimeout(context.getDefinition().getQueryTimeout());
-            }
-
             final QueryContext finalContext = context;
             final QueryDefinitionBuilder finalDefinition = context.getDefinition();
+            final ExecutionDeadline deadline = context.getDeadline();
 
             // Execute query with fetch size optimization
             return namedJdbcTemplate.execute(sql, params, (ps) -> {
+                // Timeout applies to this statement only, never to the shared template
+                deadline.attach(ps, finalDefinition.getQueryTimeout(), finalDefinition.getName());
+
                 // Apply fetch size if configured
                 if (finalDefinition.getFetchSize() != null) {
                     ps.setFetchSize(finalDefinition.getFetchSize());
@@ -157,16 +392,28 @@ public class QueryExecutorImpl {
 
                 // Execute and map results
                 try (ResultSet rs = ps.executeQuery()) {
+                    RowProjection projection = RowProjection.compile(rs.getMetaData(),
+                            finalDefinition.getAttributes().values());
                     List<QueryRow> results = new ArrayList<>();
-                    int rowNum = 0;
                     while (rs.next()) {
-                        results.add(mapRow(rs, rowNum++, finalContext));
+                        results.add(projection.map(rs, finalContext));
                     }
                     return results;
+                } finally {
+                    deadline.detach(ps);
                 }
             });
 
         } catch (Exception e) {
+            if (e instanceof QueryException queryException) {
+                throw queryException;
+            }
+            if (isTimeout(context, e)) {
+                throw new QueryException(
+                        context.getDefinition().getName(),
+                        QueryException.ErrorCode.TIMEOUT,
+                        "Query timed out or was cancelled", e);
+            }
             throw new QueryException(
                     context.getDefinition().getName(),
                     QueryException.ErrorCode.EXECUTION_ERROR,
@@ -176,14 +423,49 @@ public class QueryExecutorImpl {
 
     private int executeTotalCountQuery(QueryContext context, Map<String, Object> processedParams) {
         try {
+            QueryDefinitionBuilder definition = context.getDefinition();
             String countSql = sqlBuilder.buildCountQuery(context);
 
+            // Later pages of the same filtered result share the count
+            String cacheKey = null;
+            if (countCache.isEnabled(definition)) {
+                cacheKey = countCache.key(definition, countSql, processedParams);
+                Integer cached = countCache.get(cacheKey);
+                if (cached != null) {
+                    log.debug("Count cache hit for query '{}': {}", definition.getName(), cached);
+                    return cached;
+                }
+            }
+
             log.debug("Executing count query: {}", countSql);
 
-            Integer count = namedJdbcTemplate.queryForObject(countSql, processedParams, Integer.class);
-            return count != null ? count : 0;
+            ExecutionDeadline deadline = context.getDeadline();
+            Integer count = namedJdbcTemplate.execute(countSql, processedParams, ps -> {
+                deadline.attach(ps, definition.getQueryTimeout(), definition.getName());
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                } finally {
+                    deadline.detach(ps);
+                }
+            });
+            int total = count != null ? count : 0;
+
+            if (cacheKey != null) {
+                Duration ttl = countCache.ttlFor(definition);
+                countCache.put(cacheKey, total, ttl);
+            }
+            return total;
 
         } catch (Exception e) {
+            if (e instanceof QueryException queryException) {
+                throw queryException;
+            }
+            if (isTimeout(context, e)) {
+                throw new QueryException(
+                        context.getDefinition().getName(),
+                        QueryException.ErrorCode.TIMEOUT,
+                        "Count query timed out or was cancelled", e);
+            }
             log.warn("Failed to execute count query, using fallback: {}", e.getMessage());
             return 0;
         }
@@ -346,98 +628,4 @@ public class QueryExecutorImpl {
                 .metadata(metadata)
                 .build();
     }
-
-    /**
-     * Map a ResultSet row to QueryRow using early transformation principle.
-     * This ensures clean attribute name mapping and prevents duplication issues.
-     */
-    private QueryRow mapRow(ResultSet rs, int rowNum, QueryContext context) throws SQLException {
-        QueryDefinitionBuilder definition = context.getDefinition();
-
-        // Step 1: Extract raw SQL data
-        Map<String, Object> rawSqlData = extractRawData(rs);
-
-        // Step 2: IMMEDIATELY transform to attribute names
-        Map<String, Object> attributeData = transformSqlToAttributeNames(rawSqlData, definition);
-
-        // Step 3: Create clean QueryRow with only attribute names
-        QueryRow row = QueryRow.create(attributeData, context);
-
-        // Step 4: Process virtual attributes (using attribute names)
-        if (definition.hasAttributes()) {
-            for (Map.Entry<String, AttributeDef<?>> entry : definition.getAttributes().entrySet()) {
-                String attributeName = entry.getKey();
-                AttributeDef<?> attr = entry.getValue();
-                if (attr.virtual() && attr.hasCalculator()) {
-                    try {
-                        Object calculatedValue = attr.calculator().calculate(row, context);
-                        row.set(attributeName, calculatedValue);
-                    } catch (Exception e) {
-                        log.warn("Failed to calculate virtual attribute {}: {}", attributeName, e.getMessage());
-                        row.set(attributeName, null);
-                    }
-                }
-            }
-        }
-
-        return row;
-    }
-
-    /**
-     * Transform SQL column names to attribute names immediately after extraction.
-     * This creates a clean boundary between SQL concerns and domain logic.
-     */
-    private Map<String, Object> transformSqlToAttributeNames(Map<String, Object> sqlData, QueryDefinitionBuilder definition) {
-        Map<String, Object> attributeData = new HashMap<>();
-
-        if (definition.hasAttributes()) {
-            // Transform defined attributes from SQL columns to attribute names
-            for (Map.Entry<String, AttributeDef<?>> entry : definition.getAttributes().entrySet()) {
-                String attributeName = entry.getKey();  // city
-                AttributeDef<?> attr = entry.getValue();
-
-                if (!attr.virtual()) {  // Only process non-virtual attributes from SQL
-                    String sqlColumn = attr.aliasName() != null ? attr.aliasName().toUpperCase() : attributeName.toUpperCase();
-
-                    // Transform: SQL column name -> attribute name
-                    Object value = sqlData.get(sqlColumn);
-                    if (value != null) {
-                        attributeData.put(attributeName, value);
-                    }
-                }
-            }
-        } else {
-            // Fallback: If no attributes defined, use SQL column names as-is (lowercase)
-            // This maintains backward compatibility
-            for (Map.Entry<String, Object> entry : sqlData.entrySet()) {
-                String lowerKey = entry.getKey().toLowerCase();
-                attributeData.put(lowerKey, entry.getValue());
-            }
-        }
-
-        return attributeData; // Clean attribute names only
-    }
-
-    /**
-     * Extract raw data from ResultSet without metadata cache.
-     * Consolidated from QueryRowMapperImpl for simpler architecture.
-     */
-    private Map<String, Object> extractRawData(ResultSet rs) throws SQLException {
-        Map<String, Object> rawData = new HashMap<>();
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnName(i).toUpperCase();
-            String columnLabel = metaData.getColumnLabel(i).toUpperCase();
-            Object value = rs.getObject(i);
-
-            rawData.put(columnName, value);
-            if (!columnName.equals(columnLabel)) {
-                rawData.put(columnLabel, value);
-            }
-        }
-
-        return rawData;
-    }
 }
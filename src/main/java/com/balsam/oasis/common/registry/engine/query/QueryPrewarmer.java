@@ -0,0 +1,169 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.Pagination;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+
+/**
+ * Runs queries flagged with {@code prewarm()} once at startup.
+ *
+ * <p>
+ * Runs as an {@link ApplicationRunner}, so it completes before the application
+ * reports readiness. Each flagged query is executed on its own virtual thread,
+ * with at most {@code concurrency} queries hitting the database at a time.
+ * Waiting for a slot and executing both count against {@code timeout}: the
+ * time left is each query's execution deadline, and the run returns once the
+ * timeout has passed even if some query has not finished. The
+ * context mirrors a default HTTP request (first page, full metadata) so the
+ * warmed cache entries are the ones the first real requests look up.
+ * </p>
+ *
+ * <p>
+ * Failures are logged and recorded but never stop the application from
+ * starting. Per-query timings are kept for the {@code queryprewarm} actuator
+ * endpoint.
+ * </p>
+ */
+public class QueryPrewarmer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPrewarmer.class);
+
+    private final QueryRegistryImpl queryRegistry;
+    private final QueryExecutorImpl queryExecutor;
+    private final int concurrency;
+    private final long timeoutMillis;
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    public QueryPrewarmer(QueryRegistryImpl queryRegistry, QueryExecutorImpl queryExecutor,
+            int concurrency, long timeoutMillis) {
+        this.queryRegistry = queryRegistry;
+        this.queryExecutor = queryExecutor;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<QueryDefinitionBuilder> definitions = queryRegistry.getAllQueries().stream()
+                .filter(QueryDefinitionBuilder::isPrewarmEnabled)
+                .toList();
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        log.info("Prewarming {} queries (concurrency {})", definitions.size(), concurrency);
+        long start = System.nanoTime();
+        long deadlineNanos = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Semaphore permits = new Semaphore(concurrency);
+        List<ExecutionDeadline> deadlines = new ArrayList<>(definitions.size());
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(definitions.size());
+            for (QueryDefinitionBuilder definition : definitions) {
+                ExecutionDeadline deadline = ExecutionDeadline.after(Duration.ofMillis(timeoutMillis));
+                deadlines.add(deadline);
+                futures.add(executor.submit(() -> prewarmWithin(definition, permits, deadline)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                Future<?> future = futures.get(i);
+                try {
+                    future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    future.cancel(true);
+                }
+            }
+        } finally {
+            // Never wait for stragglers: cancel their statements and move on
+            deadlines.forEach(ExecutionDeadline::cancel);
+            executor.shutdownNow();
+        }
+        for (QueryDefinitionBuilder definition : definitions) {
+            results.putIfAbsent(definition.getName(),
+                    new Result(false, timeoutMillis, 0, "Prewarm timed out"));
+        }
+
+        long failed = results.values().stream().filter(result -> !result.success()).count();
+        log.info("Prewarmed {} queries in {} ms ({} failed)", definitions.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failed);
+    }
+
+    /**
+     * Timings and outcome of the last prewarm run, keyed by query name.
+     */
+    public Map<String, Result> getResults() {
+        return Map.copyOf(results);
+    }
+
+    /**
+     * Wait for a permit and prewarm, both within the run's deadline, so a slow
+     * statement is cancelled on the database rather than left running.
+     */
+    private void prewarmWithin(QueryDefinitionBuilder definition, Semaphore permits, ExecutionDeadline deadline) {
+        try {
+            if (!permits.tryAcquire(deadline.remainingMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            prewarm(definition, deadline);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void prewarm(QueryDefinitionBuilder definition, ExecutionDeadline deadline) {
+        long start = System.nanoTime();
+        try {
+            QueryContext context = QueryContext.builder()
+                    .definition(definition)
+                    .params(new HashMap<>(definition.getPrewarmParams()))
+                    .pagination(definition.isPaginationEnabled()
+                            ? Pagination.builder().start(0).end(definition.getDefaultPageSize()).build()
+                            : null)
+                    .includeMetadata(true)
+                    .deadline(deadline)
+                    .build();
+            QueryData data = queryExecutor.doExecute(context);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            results.put(definition.getName(), new Result(true, elapsed, data.size(), null));
+            log.debug("Prewarmed query '{}' in {} ms ({} rows)", definition.getName(), elapsed, data.size());
+        } catch (Exception e) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            results.put(definition.getName(), new Result(false, elapsed, 0, e.getMessage()));
+            log.warn("Prewarm of query '{}' failed after {} ms: {}", definition.getName(), elapsed, e.getMessage());
+        }
+    }
+
+    /**
+     * Outcome of prewarming one query.
+     */
+    public record Result(boolean success, long durationMs, int rows, String error) {
+    }
+}
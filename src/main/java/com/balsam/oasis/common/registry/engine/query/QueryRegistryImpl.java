@@ -1,33 +1,35 @@
 package com.balsam.oasis.common.registry.engine.query;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
 import com.balsam.oasis.common.registry.util.QueryUtils;
+import com.google.common.collect.ImmutableMap;
 
 /**
- * Default implementation of QueryRegistry using ConcurrentHashMap.
- * Thread-safe implementation with optimized read/write locking.
- * 
+ * Default implementation of QueryRegistry backed by an immutable snapshot.
+ *
+ * <p>
+ * Lookups read a volatile reference to an immutable map and never lock.
+ * Writers copy the current snapshot, apply their change and publish the new
+ * map, serialized on a private monitor so concurrent registrations do not lose
+ * each other's updates.
+ * </p>
+ *
  * <p>
  * This implementation provides:
  * </p>
  * <ul>
- * <li>Thread-safe registration and lookup</li>
+ * <li>Lock-free lookup</li>
  * <li>Validation of query definitions</li>
  * <li>Prevention of duplicate registrations</li>
- * <li>Support for registration listeners (future enhancement)</li>
+ * <li>Atomic replacement of the whole definition set for hot reload</li>
  * </ul>
  *
  * @author Query Registration System
@@ -37,101 +39,102 @@ public class QueryRegistryImpl {
 
     private static final Logger log = LoggerFactory.getLogger(QueryRegistryImpl.class);
 
-    private final ConcurrentMap<String, QueryDefinitionBuilder> registry = new ConcurrentHashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-
+    private final Object writeLock = new Object();
+    private volatile ImmutableMap<String, QueryDefinitionBuilder> registry = ImmutableMap.of();
 
     public void register(QueryDefinitionBuilder definition) {
         validateDefinition(definition);
 
         String name = definition.getName();
-        lock.writeLock().lock();
-        try {
-            if (registry.putIfAbsent(name, definition) != null) {
+        synchronized (writeLock) {
+            if (registry.containsKey(name)) {
                 throw new IllegalStateException("Query already registered: " + name);
             }
-            // Build comprehensive registration message
-            StringBuilder registrationLog = new StringBuilder();
-            registrationLog.append("Registered query '" + name + "': ");
-
-            // Add basic info
-            registrationLog.append("attributes=").append(definition.getAttributes().size());
-
-            // Add parameters info
-            if (definition.hasParams()) {
-                registrationLog.append(", has_params=true");
-
-                // Check for unused parameters
-                Set<String> unusedParams = QueryUtils.findUnusedParameters(definition);
-                if (!unusedParams.isEmpty()) {
-                    registrationLog.append(", unused_params=").append(unusedParams);
-                }
+            registry = ImmutableMap.<String, QueryDefinitionBuilder>builderWithExpectedSize(registry.size() + 1)
+                    .putAll(registry)
+                    .put(name, definition)
+                    .build();
+        }
+        logRegistration(definition);
+    }
+
+    /**
+     * Atomically replace all registered queries. The new set is validated as
+     * a whole before it is published; on failure the current set stays in
+     * place. Requests already running keep the definition they started with.
+     *
+     * @return the number of queries registered before the swap
+     */
+    public int replaceAll(Collection<QueryDefinitionBuilder> definitions) {
+        Map<String, QueryDefinitionBuilder> replacement = new LinkedHashMap<>();
+        for (QueryDefinitionBuilder definition : definitions) {
+            validateDefinition(definition);
+            if (replacement.putIfAbsent(definition.getName(), definition) != null) {
+                throw new IllegalStateException("Query registered twice: " + definition.getName());
             }
+        }
 
-            log.info(registrationLog.toString());
-        } finally {
-            lock.writeLock().unlock();
+        int previous;
+        synchronized (writeLock) {
+            previous = registry.size();
+            registry = ImmutableMap.copyOf(replacement);
         }
+        log.info("Replaced {} queries with {} queries", previous, replacement.size());
+        return previous;
     }
 
     public void clear() {
-        lock.writeLock().lock();
-        try {
-            int count = registry.size();
-            registry.clear();
-            log.info("Cleared {} queries from registry", count);
-        } finally {
-            lock.writeLock().unlock();
+        int count;
+        synchronized (writeLock) {
+            count = registry.size();
+            registry = ImmutableMap.of();
         }
+        log.info("Cleared {} queries from registry", count);
     }
 
     public QueryDefinitionBuilder get(String name) {
         if (name == null) {
             return null;
         }
-
-        lock.readLock().lock();
-        try {
-            return registry.get(name);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.get(name);
     }
 
     public Set<String> getQueryNames() {
-        lock.readLock().lock();
-        try {
-            return Collections.unmodifiableSet(new HashSet<>(registry.keySet()));
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.keySet();
     }
 
     public Collection<QueryDefinitionBuilder> getAllQueries() {
-        lock.readLock().lock();
-        try {
-            return Collections.unmodifiableCollection(new ArrayList<>(registry.values()));
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.values();
     }
 
     public int size() {
-        lock.readLock().lock();
-        try {
-            return registry.size();
-        } finally {
-            lock.readLock().unlock();
-        }
+        return registry.size();
     }
 
     public boolean isEmpty() {
-        lock.readLock().lock();
-        try {
-            return registry.isEmpty();
-        } finally {
-            lock.readLock().unlock();
+        return registry.isEmpty();
+    }
+
+    private void logRegistration(QueryDefinitionBuilder definition) {
+        // Build comprehensive registration message
+        StringBuilder registrationLog = new StringBuilder();
+        registrationLog.append("Registered query '" + definition.getName() + "': ");
+
+        // Add basic info
+        registrationLog.append("attributes=").append(definition.getAttributes().size());
+
+        // Add parameters info
+        if (definition.hasParams()) {
+            registrationLog.append(", has_params=true");
+
+            // Check for unused parameters
+            Set<String> unusedParams = QueryUtils.findUnusedParameters(definition);
+            if (!unusedParams.isEmpty()) {
+                registrationLog.append(", unused_params=").append(unusedParams);
+            }
         }
+
+        log.info(registrationLog.toString());
     }
 
     /**
@@ -2,6 +2,8 @@ package com.balsam.oasis.common.registry.engine.query;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
+
 import com.balsam.oasis.common.registry.domain.execution.QueryContext;
 
 /**
@@ -71,6 +73,13 @@ public class QueryRow {
         return new HashMap<>(data);
     }
 
+    /**
+     * Visit every attribute without copying the underlying map
+     */
+    public void forEach(BiConsumer<String, Object> action) {
+        data.forEach(action);
+    }
+
     /**
      * Get the query context
      */
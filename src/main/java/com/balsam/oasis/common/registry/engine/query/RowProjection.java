@@ -0,0 +1,116 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+
+/**
+ * Mapping of result set columns to attribute names, compiled once per result
+ * set from its metadata.
+ *
+ * <p>
+ * Each non-virtual attribute is bound to the column whose name or label
+ * matches its alias (case-insensitively), so mapping a row is an indexed
+ * {@code getObject} per attribute, followed by the calculators of virtual
+ * attributes. Attributes with no matching column, and NULL values, are left
+ * out of the row. Without attributes, every column is exposed under its
+ * lower-cased name and label.
+ * </p>
+ */
+public final class RowProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(RowProjection.class);
+
+    private final String[] names;
+    private final int[] columns;
+    private final List<AttributeDef<?>> virtualAttributes;
+
+    private RowProjection(String[] names, int[] columns, List<AttributeDef<?>> virtualAttributes) {
+        this.names = names;
+        this.columns = columns;
+        this.virtualAttributes = virtualAttributes;
+    }
+
+    /**
+     * Compile the projection of {@code attributes} onto a result set.
+     *
+     * @param attributes attribute definitions; empty to expose all columns
+     */
+    public static RowProjection compile(ResultSetMetaData metaData, Collection<AttributeDef<?>> attributes)
+            throws SQLException {
+        Map<String, Integer> columnIndex = new HashMap<>();
+        int columnCount = metaData.getColumnCount();
+        for (int i = 1; i <= columnCount; i++) {
+            columnIndex.putIfAbsent(metaData.getColumnName(i).toUpperCase(), i);
+            columnIndex.putIfAbsent(metaData.getColumnLabel(i).toUpperCase(), i);
+        }
+
+        Map<String, Integer> projected = new LinkedHashMap<>();
+        List<AttributeDef<?>> virtualAttributes = new ArrayList<>();
+        if (attributes != null && !attributes.isEmpty()) {
+            for (AttributeDef<?> attr : attributes) {
+                if (attr.virtual()) {
+                    if (attr.hasCalculator()) {
+                        virtualAttributes.add(attr);
+                    }
+                    continue;
+                }
+                String sqlColumn = attr.aliasName() != null ? attr.aliasName() : attr.name();
+                Integer column = columnIndex.get(sqlColumn.toUpperCase());
+                if (column != null) {
+                    projected.put(attr.name(), column);
+                }
+            }
+        } else {
+            // No attributes defined: expose the columns as-is (lowercase)
+            columnIndex.forEach((column, index) -> projected.put(column.toLowerCase(), index));
+        }
+
+        String[] names = new String[projected.size()];
+        int[] columns = new int[projected.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : projected.entrySet()) {
+            names[i] = entry.getKey();
+            columns[i] = entry.getValue();
+            i++;
+        }
+        return new RowProjection(names, columns, List.copyOf(virtualAttributes));
+    }
+
+    /**
+     * Map the current row of {@code rs}. {@code context} is handed to the
+     * calculators of virtual attributes.
+     */
+    public QueryRow map(ResultSet rs, QueryContext context) throws SQLException {
+        Map<String, Object> attributeData = new HashMap<>(names.length + virtualAttributes.size());
+        for (int i = 0; i < names.length; i++) {
+            Object value = rs.getObject(columns[i]);
+            if (value != null) {
+                attributeData.put(names[i], value);
+            }
+        }
+
+        QueryRow row = QueryRow.create(attributeData, context);
+        for (AttributeDef<?> attr : virtualAttributes) {
+            try {
+                row.set(attr.name(), attr.calculator().calculate(row, context));
+            } catch (Exception e) {
+                log.warn("Failed to calculate virtual attribute {}: {}", attr.name(), e.getMessage());
+                row.set(attr.name(), null);
+            }
+        }
+        return row;
+    }
+}
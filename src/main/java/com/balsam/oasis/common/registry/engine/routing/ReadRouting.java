@@ -0,0 +1,60 @@
+package com.balsam.oasis.common.registry.engine.routing;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Routing hint for the connection opened by the current thread.
+ *
+ * <p>
+ * The query executor sets the hint around the read-only transaction of each
+ * query; {@link ReplicaRoutingDataSource} reads it when the transaction takes
+ * its connection. Without a hint, as for PL/SQL and any other write path,
+ * connections come from the primary.
+ * </p>
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<ReadPreference> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Run {@code action} with the given preference, restoring the previous one
+     * afterwards.
+     */
+    public static <T> T call(ReadPreference preference, Supplier<T> action) {
+        ReadPreference previous = CURRENT.get();
+        CURRENT.set(preference);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Preference of the current thread, null outside {@link #call}
+     */
+    public static ReadPreference current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Where a read may go. {@code maxLag} is how stale a replica may be; null
+     * means the configured default.
+     */
+    public record ReadPreference(boolean primaryOnly, Duration maxLag) {
+
+        public static final ReadPreference PRIMARY = new ReadPreference(true, null);
+
+        public static ReadPreference replica(Duration maxLag) {
+            return new ReadPreference(false, maxLag);
+        }
+    }
+}
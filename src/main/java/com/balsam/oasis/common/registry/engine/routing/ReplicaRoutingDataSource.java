@@ -0,0 +1,201 @@
+package com.balsam.oasis.common.registry.engine.routing;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * DataSource sending read-only query traffic to read replicas.
+ *
+ * <p>
+ * A connection is taken from a replica only when the current thread carries a
+ * {@link ReadRouting.ReadPreference} that allows it; everything else, PL/SQL
+ * and read-your-writes queries included, uses the primary. Among the replicas
+ * whose last measured lag is within the preference's tolerance, one is picked
+ * round-robin or, with {@link Selection#LEAST_LOADED}, the one with the fewest
+ * active pooled connections. When no replica qualifies the primary is used.
+ * </p>
+ *
+ * <p>
+ * Lag is measured every {@code lagCheckInterval} by running {@code lagQuery}
+ * on each replica; it must return the apply lag in seconds, for example from
+ * {@code V$DATAGUARD_STATS}. A replica whose probe fails is skipped until the
+ * next successful probe. Without a lag query replicas are assumed current.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final long defaultMaxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Selection selection,
+            Duration defaultMaxLag, String lagQuery, Duration lagCheckInterval) {
+        this.primary = primary;
+        this.selection = selection;
+        this.defaultMaxLagMillis = defaultMaxLag.toMillis();
+        this.lagQuery = lagQuery != null && !lagQuery.isBlank() ? lagQuery : null;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            if (PRIMARY.equals(name)) {
+                throw new IllegalArgumentException("Replica cannot be named '" + PRIMARY + "'");
+            }
+            this.replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        if (this.lagQuery != null && !this.replicas.isEmpty() && lagCheckInterval.toMillis() > 0) {
+            this.lagChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("replica-lag-check-%d").setDaemon(true).build());
+            this.lagChecker.scheduleWithFixedDelay(this::refreshLag, 0, lagCheckInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.lagChecker = null;
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReadRouting.ReadPreference preference = ReadRouting.current();
+        if (preference == null || preference.primaryOnly() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        long maxLagMillis = preference.maxLag() != null ? preference.maxLag().toMillis() : defaultMaxLagMillis;
+        Replica replica = choose(maxLagMillis);
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    /**
+     * Measure the lag of every replica now
+     */
+    public void refreshLag() {
+        for (Replica replica : replicas) {
+            if (lagQuery == null) {
+                replica.lagMillis = 0;
+                continue;
+            }
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(lagQuery)) {
+                replica.lagMillis = rs.next() ? (long) (rs.getDouble(1) * 1000) : 0;
+            } catch (SQLException | RuntimeException e) {
+                if (replica.lagMillis != Long.MAX_VALUE) {
+                    log.warn("Replica '{}' lag check failed, routing its reads to other nodes: {}",
+                            replica.name, e.getMessage());
+                }
+                replica.lagMillis = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Last measured lag of a replica in milliseconds, {@code Long.MAX_VALUE}
+     * when its last probe failed
+     */
+    public long getReplicaLagMillis(String name) {
+        return replicas.stream()
+                .filter(replica -> replica.name.equals(name))
+                .mapToLong(replica -> replica.lagMillis)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown replica: " + name));
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        // The primary is owned by the application context
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable && replica.dataSource != primary) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.debug("Failed to close replica '{}': {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Replica choose(long maxLagMillis) {
+        int size = replicas.size();
+        if (selection == Selection.LEAST_LOADED) {
+            Replica best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                int load = activeConnections(replica.dataSource);
+                if (replica.lagMillis <= maxLagMillis && load < bestLoad) {
+                    best = replica;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.lagMillis <= maxLagMillis) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getActiveConnections();
+            }
+        }
+        return 0;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.balsam.oasis.common.registry.example;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -9,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
 import com.balsam.oasis.common.registry.engine.query.QueryRegistryImpl;
 import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.definition.ChildQueryDef;
 import com.balsam.oasis.common.registry.domain.definition.CriteriaDef;
 import com.balsam.oasis.common.registry.domain.definition.ParamDef;
 
@@ -48,6 +50,7 @@ public class OracleHRQueryConfig {
 
                 // Register all queries defined in this configuration
                 queryRegistry.register(employeesQuery());
+                queryRegistry.register(departmentEmployeesQuery());
                 queryRegistry.register(departmentStatsQuery());
                 queryRegistry.register(QueryDefinitionBuilder.builder("testUnion").sql(
                                 """
@@ -230,6 +233,42 @@ public class OracleHRQueryConfig {
                                 .defaultPageSize(20)
                                 .maxPageSize(100)
                                 .cache(true)
+                                .prewarm()
+                                .build();
+        }
+
+        private QueryDefinitionBuilder departmentEmployeesQuery() {
+                return QueryDefinitionBuilder.builder("departmentEmployees")
+                                .sql("""
+                                                SELECT
+                                                    e.employee_id,
+                                                    e.first_name,
+                                                    e.last_name,
+                                                    e.job_id,
+                                                    e.department_id
+                                                FROM employees e
+                                                WHERE e.department_id IN (:departmentIds)
+                                                ORDER BY e.department_id, e.last_name
+                                                """)
+                                .description("Employees of a set of departments, used as child of departmentStats")
+                                .attribute(AttributeDef.name("employeeId", Integer.class)
+                                                .aliasName("employee_id")
+                                                .primaryKey(true)
+                                                .build())
+                                .attribute(AttributeDef.name("firstName", String.class)
+                                                .aliasName("first_name")
+                                                .build())
+                                .attribute(AttributeDef.name("lastName", String.class)
+                                                .aliasName("last_name")
+                                                .build())
+                                .attribute(AttributeDef.name("jobId", String.class)
+                                                .aliasName("job_id")
+                                                .build())
+                                .attribute(AttributeDef.name("departmentId", Integer.class)
+                                                .aliasName("department_id")
+                                                .build())
+                                .parameter(ParamDef.name("departmentIds", List.class).required(true).build())
+                                .paginationEnabled(false)
                                 .build();
         }
 
@@ -303,8 +342,13 @@ public class OracleHRQueryConfig {
                                                 .aliasName("country_name")
                                                 .build())
 
-                                // Removed N+1 query problem - use employee count instead
-                                // If you need employee details, fetch them separately in batch
+                                // Employee details for the whole page in one IN-list query
+                                .child(ChildQueryDef.name("employees")
+                                                .query("departmentEmployees")
+                                                .parentKey("departmentId")
+                                                .childKey("departmentId")
+                                                .keysParam("departmentIds")
+                                                .build())
                                 .attribute(AttributeDef.name("departmentSize", String.class)
                                                 .calculated((row, context) -> {
                                                         Integer count = (Integer) row.getRaw("EMPLOYEE_COUNT");
@@ -330,6 +374,8 @@ public class OracleHRQueryConfig {
 
                                 .defaultPageSize(25)
                                 .maxPageSize(100)
+                                // Aggregation over all departments; keep it from draining the pool
+                                .maxConcurrency(10, 20, Duration.ofSeconds(2))
                                 .build();
         }
 
@@ -1,15 +1,26 @@
 package com.balsam.oasis.common.registry.service;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlBatchResult;
 import com.balsam.oasis.common.registry.domain.execution.PlsqlExecution;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlJob;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlWorkflowStep;
 import com.balsam.oasis.common.registry.engine.plsql.PlsqlExecutorImpl;
+import com.balsam.oasis.common.registry.engine.plsql.PlsqlJobManager;
 import com.balsam.oasis.common.registry.engine.plsql.PlsqlRegistryImpl;
 
 @Service
@@ -18,13 +29,23 @@ public class PlsqlService {
 
     private final PlsqlExecutorImpl plsqlExecutor;
     private final PlsqlRegistryImpl plsqlRegistry;
+    private final PlsqlJobManager jobManager;
+    private final int maxBatchSize;
 
-    public PlsqlService(PlsqlExecutorImpl plsqlExecutor, PlsqlRegistryImpl plsqlRegistry) {
+    public PlsqlService(PlsqlExecutorImpl plsqlExecutor, PlsqlRegistryImpl plsqlRegistry,
+            PlsqlJobManager jobManager, int maxBatchSize) {
         this.plsqlExecutor = plsqlExecutor;
         this.plsqlRegistry = plsqlRegistry;
+        this.jobManager = jobManager;
+        this.maxBatchSize = maxBatchSize;
     }
 
     public Map<String, Object> executePlsql(String plsqlName, Map<String, Object> params) {
+        return executePlsql(plsqlName, params, ExecutionDeadline.none());
+    }
+
+    public Map<String, Object> executePlsql(String plsqlName, Map<String, Object> params,
+            ExecutionDeadline deadline) {
         log.info("Executing PL/SQL: {} with params: {}", plsqlName, params);
 
         PlsqlDefinitionBuilder plsqlDefinition = plsqlRegistry.resolve(plsqlName, params != null ? params : Map.of());
@@ -33,7 +54,7 @@ public class PlsqlService {
                     "PL/SQL block not found: " + plsqlName);
         }
 
-        PlsqlExecution execution = plsqlExecutor.prepare(plsqlDefinition);
+        PlsqlExecution execution = plsqlExecutor.prepare(plsqlDefinition).withDeadline(deadline);
         if (params != null) {
             params.forEach(execution::withParam);
         }
@@ -41,4 +62,130 @@ public class PlsqlService {
         return execution.execute();
     }
 
-}
\ No newline at end of file
+    /**
+     * Run several blocks in order in one transaction. Block names, aliases and
+     * input references are checked before the transaction starts: every
+     * block must be registered, aliases must be unique and inputs must refer
+     * to outputs of earlier steps.
+     *
+     * @return the outputs of each step by alias, in step order
+     */
+    public Map<String, Map<String, Object>> executeWorkflow(List<PlsqlWorkflowStep> steps,
+            ExecutionDeadline deadline) {
+        if (steps == null || steps.isEmpty()) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR, "Workflow has no steps");
+        }
+        log.info("Executing PL/SQL workflow of {} steps", steps.size());
+
+        Set<String> aliases = new HashSet<>();
+        for (PlsqlWorkflowStep step : steps) {
+            if (plsqlRegistry.get(step.name()) == null) {
+                throw new QueryException(step.name(), QueryException.ErrorCode.QUERY_NOT_FOUND,
+                        "PL/SQL block not found: " + step.name());
+            }
+            step.inputs().forEach((param, reference) -> {
+                int dot = reference.indexOf('.');
+                if (dot <= 0 || !aliases.contains(reference.substring(0, dot))) {
+                    throw new QueryException(step.name(), QueryException.ErrorCode.VALIDATION_ERROR,
+                            "Input '" + param + "' must refer to an earlier step as alias.output: " + reference);
+                }
+            });
+            if (!aliases.add(step.alias())) {
+                throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR,
+                        "Duplicate workflow step alias: " + step.alias());
+            }
+        }
+
+        return plsqlExecutor.doExecuteWorkflow(steps, deadline);
+    }
+
+    /**
+     * Submit a block to run as a background job. The overload is resolved
+     * now, so an unknown block fails the submission rather than the job.
+     * {@code deadline} runs from submission.
+     */
+    public PlsqlJob submitPlsql(String plsqlName, Map<String, Object> params, ExecutionDeadline deadline) {
+        Map<String, Object> finalParams = params != null ? new HashMap<>(params) : Map.of();
+        PlsqlDefinitionBuilder plsqlDefinition = plsqlRegistry.resolve(plsqlName, finalParams);
+        if (plsqlDefinition == null) {
+            throw new QueryException(plsqlName, QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "PL/SQL block not found: " + plsqlName);
+        }
+
+        return jobManager.submit(plsqlName, deadline, jobDeadline -> plsqlExecutor.prepare(plsqlDefinition)
+                .withDeadline(jobDeadline)
+                .withParams(finalParams)
+                .execute());
+    }
+
+    public PlsqlJob getJob(String jobId) {
+        PlsqlJob job = jobManager.get(jobId);
+        if (job == null) {
+            throw new QueryException(jobId, QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "Job not found or expired: " + jobId);
+        }
+        return job;
+    }
+
+    public PlsqlJob cancelJob(String jobId) {
+        PlsqlJob job = jobManager.cancel(jobId);
+        if (job == null) {
+            throw new QueryException(jobId, QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "Job not found or expired: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Execute a block, handing the rows of REF CURSOR parameter
+     * {@code cursorName} to {@code consumer} as they are fetched. The cursor's
+     * output is its row count.
+     */
+    public Map<String, Object> streamCursor(String plsqlName, Map<String, Object> params, String cursorName,
+            Consumer<Map<String, Object>> consumer, ExecutionDeadline deadline) {
+        log.info("Streaming cursor {} of PL/SQL: {} with params: {}", cursorName, plsqlName, params);
+
+        PlsqlDefinitionBuilder plsqlDefinition = plsqlRegistry.resolve(plsqlName, params != null ? params : Map.of());
+        if (plsqlDefinition == null) {
+            throw new QueryException(plsqlName, QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "PL/SQL block not found: " + plsqlName);
+        }
+        PlsqlParamDef<?> cursor = plsqlDefinition.getParameters().get(cursorName);
+        if (cursor == null || !cursor.isCursor()) {
+            throw new QueryException(plsqlName, QueryException.ErrorCode.VALIDATION_ERROR,
+                    "Not a REF CURSOR parameter of " + plsqlName + ": " + cursorName);
+        }
+
+        PlsqlExecution execution = plsqlExecutor.prepare(plsqlDefinition)
+                .withDeadline(deadline)
+                .withCursorConsumer(cursorName, consumer);
+        if (params != null) {
+            params.forEach(execution::withParam);
+        }
+
+        return execution.execute();
+    }
+
+    /**
+     * Execute a block once per parameter set. The overload is resolved from
+     * the first set and used for all of them.
+     */
+    public List<PlsqlBatchResult> executePlsqlBatch(String plsqlName, List<Map<String, Object>> paramSets,
+            ExecutionDeadline deadline) {
+        if (paramSets.size() > maxBatchSize) {
+            throw new QueryException(plsqlName, QueryException.ErrorCode.VALIDATION_ERROR,
+                    String.format("Batch has %d parameter sets, maximum is %d", paramSets.size(), maxBatchSize));
+        }
+        log.info("Executing PL/SQL: {} for {} parameter sets", plsqlName, paramSets.size());
+
+        Map<String, Object> first = !paramSets.isEmpty() && paramSets.get(0) != null ? paramSets.get(0) : Map.of();
+        PlsqlDefinitionBuilder plsqlDefinition = plsqlRegistry.resolve(plsqlName, first);
+        if (plsqlDefinition == null) {
+            throw new QueryException(plsqlName, QueryException.ErrorCode.QUERY_NOT_FOUND,
+                    "PL/SQL block not found: " + plsqlName);
+        }
+
+        return plsqlExecutor.doExecuteBatch(plsqlDefinition, paramSets, deadline);
+    }
+
+}
@@ -5,17 +5,26 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.engine.query.KeyLookupBatcher;
 import com.balsam.oasis.common.registry.engine.query.QueryExecutorImpl;
 import com.balsam.oasis.common.registry.engine.query.QueryRegistryImpl;
 import com.balsam.oasis.common.registry.engine.query.QueryRow;
 import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
 import com.balsam.oasis.common.registry.domain.execution.QueryContext;
 
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -29,10 +38,17 @@ public class QueryService {
 
     private final QueryExecutorImpl queryExecutor;
     private final QueryRegistryImpl queryRegistry;
+    private final KeyLookupBatcher keyLookup;
+    private final int batchParallelism;
+    private final int batchMaxItems;
 
-    public QueryService(QueryExecutorImpl queryExecutor, QueryRegistryImpl queryRegistry) {
+    public QueryService(QueryExecutorImpl queryExecutor, QueryRegistryImpl queryRegistry,
+            KeyLookupBatcher keyLookup, int batchParallelism, int batchMaxItems) {
         this.queryExecutor = queryExecutor;
         this.queryRegistry = queryRegistry;
+        this.keyLookup = keyLookup;
+        this.batchParallelism = Math.max(1, batchParallelism);
+        this.batchMaxItems = batchMaxItems;
     }
 
     /**
@@ -72,8 +88,74 @@ public class QueryService {
         return queryDefinition;
     }
 
+    /**
+     * Run independent tasks in parallel on the query executor, at most
+     * {@code batchParallelism} at a time. Results keep the order of the tasks.
+     * Tasks are expected to report their own failures in their result.
+     */
+    public <T> List<T> executeAll(List<Supplier<T>> tasks) {
+        if (tasks.size() > batchMaxItems) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR,
+                    String.format("Batch has %d items, maximum is %d", tasks.size(), batchMaxItems));
+        }
+
+        Executor executor = queryExecutor.getAsyncExecutor();
+        Semaphore permits = new Semaphore(batchParallelism);
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            // Bound the fan-out without parking executor threads
+            permits.acquireUninterruptibly();
+            try {
+                futures.add(CompletableFuture.supplyAsync(task, executor)
+                        .whenComplete((result, error) -> permits.release()));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                futures.add(CompletableFuture.completedFuture(task.get()));
+            }
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
     public QueryRow executeSingle(String queryName, Map<String, Object> params) {
-        return queryExecutor.execute(queryName).withParams(params).executeSingle();
+        return executeSingle(queryName, params, ExecutionDeadline.none());
+    }
+
+    public QueryRow executeSingle(String queryName, Map<String, Object> params, ExecutionDeadline deadline) {
+        return queryExecutor.execute(queryName).withParams(params).withDeadline(deadline).executeSingle();
+    }
+
+    /**
+     * Find one row. When the primary key attribute is filterable and among the
+     * params the lookup is merged with concurrent lookups of the same query
+     * into one IN-list execution; otherwise the query's own key criteria are
+     * used. Either way more than one matching row is an error.
+     */
+    public QueryRow findByKey(String queryName, Map<String, Object> params, ExecutionDeadline deadline) {
+        QueryDefinitionBuilder definition = getQueryDefinition(queryName);
+        AttributeDef<?> keyAttribute = definition.getPrimaryKeyAttribute();
+        if (keyAttribute == null || !keyAttribute.filterable() || params.get(keyAttribute.name()) == null) {
+            return executeSingle(queryName, params, deadline);
+        }
+
+        Map<String, Object> otherParams = new HashMap<>(params);
+        Object key = otherParams.remove(keyAttribute.name());
+        try {
+            return keyLookup.find(definition, otherParams, key, deadline).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Find the rows for many primary keys with one statement. The result is
+     * aligned with {@code keys}, with null where no row has the key.
+     */
+    public List<QueryRow> findByKeys(String queryName, List<?> keys, Map<String, Object> params,
+            ExecutionDeadline deadline) {
+        return keyLookup.findAll(getQueryDefinition(queryName), keys, params, deadline);
     }
 
     /**
@@ -98,10 +180,9 @@ public class QueryService {
             transformedRows.add(QueryRow.create(rowData, result.getContext()));
         }
 
-        return QueryData.builder()
+        // Keeps the digest and expiry: value and label follow from the rows they describe
+        return result.toBuilder()
                 .rows(ImmutableList.copyOf(transformedRows))
-                .context(result.getContext())
-                .metadata(result.getMetadata())
                 .build();
     }
 
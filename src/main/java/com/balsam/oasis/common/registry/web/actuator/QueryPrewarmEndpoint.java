@@ -0,0 +1,28 @@
+package com.balsam.oasis.common.registry.web.actuator;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import com.balsam.oasis.common.registry.engine.query.QueryPrewarmer;
+
+/**
+ * Actuator endpoint exposing per-query startup prewarm timings at
+ * {@code /actuator/queryprewarm}.
+ */
+@Endpoint(id = "queryprewarm")
+public class QueryPrewarmEndpoint {
+
+    private final QueryPrewarmer prewarmer;
+
+    public QueryPrewarmEndpoint(QueryPrewarmer prewarmer) {
+        this.prewarmer = prewarmer;
+    }
+
+    @ReadOperation
+    public Map<String, QueryPrewarmer.Result> prewarm() {
+        return new TreeMap<>(prewarmer.getResults());
+    }
+}
@@ -0,0 +1,59 @@
+package com.balsam.oasis.common.registry.web.controller;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+
+/**
+ * Cancels the execution behind an async request that timed out or failed, so
+ * the statement stops on the database instead of running on for a client that
+ * already got its answer.
+ *
+ * <p>
+ * CompletableFuture return values are adapted to DeferredResult, so this
+ * interceptor sees every async endpoint of {@link QueryBaseController}.
+ * Streaming responses run as Callables and are covered by the callable side.
+ * </p>
+ */
+public class ExecutionDeadlineInterceptor
+        implements DeferredResultProcessingInterceptor, CallableProcessingInterceptor {
+
+    @Override
+    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        cancel(request);
+        return true;
+    }
+
+    @Override
+    public <T> boolean handleError(NativeWebRequest request,
+            DeferredResult<T> deferredResult, Throwable t) {
+        cancel(request);
+        return true;
+    }
+
+    @Override
+    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    @Override
+    public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    private void cancel(NativeWebRequest request) {
+        Object deadline = request.getAttribute(QueryBaseController.DEADLINE_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (deadline instanceof ExecutionDeadline executionDeadline) {
+            executionDeadline.cancel();
+        }
+    }
+}
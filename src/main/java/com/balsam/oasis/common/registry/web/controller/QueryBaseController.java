@@ -1,32 +1,159 @@
 package com.balsam.oasis.common.registry.web.controller;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import com.balsam.oasis.common.registry.web.dto.response.QueryResponse;
 import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
 
 public abstract class QueryBaseController {
 
     private static final Logger log = LoggerFactory.getLogger(QueryBaseController.class);
 
+    /**
+     * Time the client is willing to wait, e.g. {@code 5s} or {@code 2500} (ms).
+     * Applied as the deadline of every statement run for the request.
+     */
+    protected static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    /**
+     * Workload lane for the request: INTERACTIVE, BATCH or EXPORT. It can only
+     * move a request below the lane of its definition.
+     */
+    protected static final String LANE_HEADER = "X-Query-Lane";
+
+    /**
+     * Request attribute holding the {@link ExecutionDeadline} of an async
+     * request, so it can be cancelled when the request times out.
+     */
+    public static final String DEADLINE_ATTRIBUTE = QueryBaseController.class.getName() + ".deadline";
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Executor that completes async responses. Must be suitable for blocking
+     * JDBC calls.
+     */
+    protected abstract Executor responseExecutor();
+
+    protected ExecutionLane laneFrom(String lane) {
+        if (lane == null || lane.isBlank()) {
+            return null;
+        }
+        try {
+            return ExecutionLane.valueOf(lane.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR,
+                    "Invalid " + LANE_HEADER + " header: " + lane);
+        }
+    }
+
+    protected ExecutionDeadline deadlineFrom(String requestTimeout) {
+        if (requestTimeout == null || requestTimeout.isBlank()) {
+            return ExecutionDeadline.none();
+        }
+        try {
+            Duration timeout = DurationStyle.detectAndParse(requestTimeout.trim());
+            return ExecutionDeadline.after(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR,
+                    "Invalid " + REQUEST_TIMEOUT_HEADER + " header: " + requestTimeout);
+        }
+    }
+
+    /**
+     * Run a handler off the servlet thread and complete the response from the
+     * execution executor. The deadline is parsed up front and published as a
+     * request attribute so an async timeout can cancel the running statement.
+     */
+    protected <R> CompletableFuture<ResponseEntity<QueryResponse<R>>> async(String requestTimeout,
+            Function<ExecutionDeadline, ResponseEntity<QueryResponse<R>>> handler) {
+        ExecutionDeadline deadline;
+        try {
+            deadline = deadlineFrom(requestTimeout);
+        } catch (QueryException e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+        publishDeadline(deadline);
+        try {
+            return CompletableFuture.supplyAsync(() -> handler.apply(deadline), responseExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(errorResponse(new QueryException(
+                    QueryException.ErrorCode.OVERLOADED, "Execution queue is full, retry later")));
+        }
+    }
+
+    /**
+     * Publish the deadline of an async request, so that a timeout or a
+     * dropped connection cancels the running statement
+     */
+    protected void publishDeadline(ExecutionDeadline deadline) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(DEADLINE_ATTRIBUTE, deadline, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * The async request timed out before the execution completed. The
+     * deadline has already been cancelled by {@link ExecutionDeadlineInterceptor}.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<QueryResponse<Object>> handleAsyncTimeout(AsyncRequestTimeoutException e) {
+        log.warn("Async request timed out before the execution completed");
+        return ResponseEntity
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(QueryResponse.error(QueryException.ErrorCode.TIMEOUT.getCode(), "Request timed out"));
+    }
+
     protected <T> ResponseEntity<QueryResponse<T>> execute(Supplier<T> supplier) {
         return executeWithTimer(supplier,
                 (result, time) -> ResponseEntity.ok(QueryResponse.single(result, null, time, null)));
     }
 
-    protected ResponseEntity<QueryResponse<List<Map<String, Object>>>> executeQueryList(Supplier<QueryData> supplier) {
+    /**
+     * Execute a list query and answer with an entity tag derived from the rows.
+     * When the client's If-None-Match matches, a 304 is returned and the rows are
+     * never handed to Jackson.
+     */
+    protected ResponseEntity<QueryResponse<List<Map<String, Object>>>> executeQueryList(Supplier<QueryData> supplier,
+            String ifNoneMatch) {
         return executeWithTimer(supplier, (queryData, time) -> {
+            String eTag = "\"" + queryData.contentDigest() + "\"";
+            CacheControl cacheControl = cacheControlFor(queryData);
+            if (matchesETag(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(eTag)
+                        .cacheControl(cacheControl)
+                        .build();
+            }
             List<Map<String, Object>> data = queryData.getData();
             Long count = (long) queryData.getCount();
-            return ResponseEntity.ok(QueryResponse.list(data, count, time, queryData.getMetadata()));
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .body(QueryResponse.list(data, count, time, queryData.getMetadata()));
         });
     }
 
@@ -40,6 +167,65 @@ public abstract class QueryBaseController {
         });
     }
 
+    /**
+     * A cached result may be reused by the client for what is left of its cache
+     * entry's TTL, so the response never outlives the entry it came from;
+     * everything else must be revalidated, which is cheap thanks to the entity
+     * tag.
+     */
+    private CacheControl cacheControlFor(QueryData queryData) {
+        if (queryData.getExpiresAt() != null) {
+            long remainingMillis = queryData.getExpiresAt() - System.currentTimeMillis();
+            if (remainingMillis >= 1000) {
+                return CacheControl.maxAge(Duration.ofMillis(remainingMillis)).cachePrivate();
+            }
+        }
+        return CacheControl.noCache();
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * HTTP status a failed execution maps to when reported per item
+     */
+    protected int statusFor(QueryException e) {
+        if (isRejection(e)) {
+            return HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        String code = e.getErrorCode();
+        if (QueryException.ErrorCode.QUERY_NOT_FOUND.getCode().equals(code)) {
+            return HttpStatus.NOT_FOUND.value();
+        }
+        if (QueryException.ErrorCode.VALIDATION_ERROR.getCode().equals(code)
+                || QueryException.ErrorCode.PARAMETER_ERROR.getCode().equals(code)) {
+            return HttpStatus.BAD_REQUEST.value();
+        }
+        if (QueryException.ErrorCode.TIMEOUT.getCode().equals(code)) {
+            return HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    private boolean isRejection(QueryException e) {
+        String code = e.getErrorCode();
+        return QueryException.ErrorCode.OVERLOADED.getCode().equals(code)
+                || QueryException.ErrorCode.CONCURRENCY_LIMIT_EXCEEDED.getCode().equals(code);
+    }
+
     private <T, R> ResponseEntity<QueryResponse<R>> executeWithTimer(Supplier<T> supplier,
             java.util.function.BiFunction<T, Long, ResponseEntity<QueryResponse<R>>> responseBuilder) {
         long startTime = System.currentTimeMillis();
@@ -47,17 +233,30 @@ public abstract class QueryBaseController {
             T result = supplier.get();
             long executionTime = System.currentTimeMillis() - startTime;
             return responseBuilder.apply(result, executionTime);
-        } catch (QueryException e) {
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    protected <R> ResponseEntity<QueryResponse<R>> errorResponse(Exception exception) {
+        if (exception instanceof QueryException e) {
+            if (isRejection(e)) {
+                // Shed load: tell the client to back off instead of queueing
+                log.warn("Request rejected: {}", e.getMessage());
+                return ResponseEntity
+                        .status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .body(QueryResponse.error(e.getErrorCode(), e.getMessage()));
+            }
             log.error("Query execution failed: {}", e.getMessage());
             return ResponseEntity
                     .status(HttpStatus.OK)
                     .body(QueryResponse.error(e.getErrorCode(), e.getMessage()));
-        } catch (Exception e) {
-            log.error("Unexpected error: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.OK)
-                    .body(QueryResponse.error("INTERNAL_ERROR", e.getMessage()));
         }
+        log.error("Unexpected error: {}", exception.getMessage(), exception);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(QueryResponse.error("INTERNAL_ERROR", exception.getMessage()));
     }
 
 }
\ No newline at end of file
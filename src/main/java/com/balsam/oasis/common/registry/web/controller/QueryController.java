@@ -1,29 +1,62 @@
 package com.balsam.oasis.common.registry.web.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
 import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlBatchResult;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlJob;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlWorkflowStep;
 import com.balsam.oasis.common.registry.domain.execution.QueryContext;
 import com.balsam.oasis.common.registry.engine.query.QueryRow;
+import com.balsam.oasis.common.registry.web.dto.request.BatchQueryRequest;
+import com.balsam.oasis.common.registry.web.dto.request.PlsqlWorkflowRequest;
+import com.balsam.oasis.common.registry.web.dto.response.BatchItemResponse;
+import com.balsam.oasis.common.registry.web.dto.response.PlsqlBatchItemResponse;
+import com.balsam.oasis.common.registry.web.dto.response.PlsqlJobResponse;
 import com.balsam.oasis.common.registry.web.dto.response.QueryResponse;
 import com.balsam.oasis.common.registry.web.parser.QueryRequestParser;
 import com.balsam.oasis.common.registry.service.PlsqlService;
 import com.balsam.oasis.common.registry.service.QueryService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -75,40 +108,126 @@ public class QueryController extends QueryBaseController {
 
     private static final Logger log = LoggerFactory.getLogger(QueryController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final QueryService queryService;
     private final QueryRequestParser requestParser;
     private final PlsqlService plsqlService;
+    private final Executor queryExecutionExecutor;
+    private final ObjectMapper objectMapper;
+    private final Duration maxJobWait;
+
+    @Override
+    protected Executor responseExecutor() {
+        return queryExecutionExecutor;
+    }
 
     @GetMapping("/query/{queryName}")
     @Operation(summary = "Execute a query", description = "Execute a registered query with filters, sorting, and pagination")
-    public ResponseEntity<QueryResponse<List<Map<String, Object>>>> executeQuery(
+    public CompletableFuture<ResponseEntity<QueryResponse<List<Map<String, Object>>>>> executeQuery(
             @PathVariable @Parameter(description = "Name of the registered query") String queryName,
             @RequestParam(name = "_start", defaultValue = "0") @Parameter(description = "Start index for pagination") Integer start,
             @RequestParam(name = "_end", defaultValue = "50") @Parameter(description = "End index for pagination") Integer end,
             @RequestParam(name = "_meta", defaultValue = "full") @Parameter(description = "Metadata level: full, minimal, none") String meta,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) @Parameter(description = "Entity tag from a previous response") String ifNoneMatch,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestHeader(name = LANE_HEADER, required = false) @Parameter(description = "Workload lane: INTERACTIVE, BATCH or EXPORT") String lane,
             @RequestParam MultiValueMap<String, String> allParams) {
 
         log.info("Executing query: {} with params: {}", queryName, allParams);
 
-        return executeQueryList(() -> {
+        return async(requestTimeout, deadline -> executeQueryList(() -> {
             QueryDefinitionBuilder queryDefinition = queryService.getQueryDefinition(queryName);
             QueryContext queryContext = requestParser.parseForQuery(allParams, start, end, meta, queryDefinition);
+            queryContext.setDeadline(deadline);
+            queryContext.setLane(laneFrom(lane));
             return queryService.executeQuery(queryContext);
+        }, ifNoneMatch));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Execute several queries", description = "Execute named queries in parallel and return one combined response with per-item status")
+    public ResponseEntity<QueryResponse<List<BatchItemResponse>>> executeBatch(
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestHeader(name = LANE_HEADER, required = false) @Parameter(description = "Workload lane: INTERACTIVE, BATCH or EXPORT") String lane,
+            @RequestBody BatchQueryRequest request) {
+
+        List<BatchQueryRequest.Item> items = request.getQueries() != null ? request.getQueries() : List.of();
+        log.info("Executing batch of {} queries", items.size());
+
+        return execute(() -> {
+            ExecutionDeadline deadline = deadlineFrom(requestTimeout);
+            ExecutionLane requestedLane = laneFrom(lane);
+            List<Supplier<BatchItemResponse>> tasks = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                BatchQueryRequest.Item item = items.get(i);
+                String id = item.getId() != null ? item.getId() : String.valueOf(i);
+                tasks.add(() -> executeBatchItem(id, item, deadline.fork(), requestedLane));
+            }
+            return queryService.executeAll(tasks);
         });
     }
 
+    private BatchItemResponse executeBatchItem(String id, BatchQueryRequest.Item item, ExecutionDeadline deadline,
+            ExecutionLane lane) {
+        long startTime = System.currentTimeMillis();
+        try {
+            QueryDefinitionBuilder queryDefinition = queryService.getQueryDefinition(item.getName());
+            QueryContext queryContext = requestParser.parseForQuery(toQueryParams(item.getParams()),
+                    item.getStart() != null ? item.getStart() : 0,
+                    item.getEnd() != null ? item.getEnd() : 50,
+                    item.getMeta() != null ? item.getMeta() : "full",
+                    queryDefinition);
+            queryContext.setDeadline(deadline);
+            queryContext.setLane(lane);
+            QueryData queryData = queryService.executeQuery(queryContext);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return new BatchItemResponse(id, item.getName(), HttpStatus.OK.value(),
+                    QueryResponse.list(queryData.getData(), (long) queryData.getCount(), executionTime,
+                            queryData.getMetadata()));
+        } catch (QueryException e) {
+            log.error("Batch item '{}' failed: {}", id, e.getMessage());
+            return new BatchItemResponse(id, item.getName(), statusFor(e),
+                    QueryResponse.error(e.getErrorCode(), e.getMessage()));
+        } catch (Exception e) {
+            log.error("Batch item '{}' failed: {}", id, e.getMessage(), e);
+            return new BatchItemResponse(id, item.getName(), HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    QueryResponse.error("INTERNAL_ERROR", e.getMessage()));
+        }
+    }
+
+    /**
+     * Turn a JSON params object into the query-string form the parser expects
+     */
+    private MultiValueMap<String, String> toQueryParams(Map<String, Object> params) {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        if (params != null) {
+            params.forEach((name, value) -> {
+                if (value instanceof Collection<?> values) {
+                    values.forEach(v -> queryParams.add(name, String.valueOf(v)));
+                } else if (value != null) {
+                    queryParams.add(name, String.valueOf(value));
+                }
+            });
+        }
+        return queryParams;
+    }
+
     @GetMapping("/query/{queryName}/find-by-key")
     @Operation(summary = "Find by key", description = "Find a single record using key criteria")
     public ResponseEntity<QueryResponse<Map<String, Object>>> findByKey(
             @PathVariable @Parameter(description = "Name of the registered query") String queryName,
             @RequestParam(name = "_meta", defaultValue = "false") @Parameter(description = "Include metadata") boolean meta,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
             @RequestParam Map<String, Object> params) {
 
         log.info("Finding by key for query: {} with params: {}", queryName, params);
 
         return execute(() -> {
+            Map<String, Object> lookupParams = new HashMap<>(params);
+            lookupParams.remove("_meta");
 
-            QueryRow result = queryService.executeSingle(queryName, params);
+            QueryRow result = queryService.findByKey(queryName, lookupParams, deadlineFrom(requestTimeout));
             if (result == null) {
                 throw new QueryException(queryName, QueryException.ErrorCode.QUERY_NOT_FOUND, "No data found");
             }
@@ -116,24 +235,52 @@ public class QueryController extends QueryBaseController {
         });
     }
 
+    @GetMapping("/query/{queryName}/find-by-keys")
+    @Operation(summary = "Find by keys", description = "Find the records for many primary keys with one query, in key order")
+    public ResponseEntity<QueryResponse<List<Map<String, Object>>>> findByKeys(
+            @PathVariable @Parameter(description = "Name of the registered query") String queryName,
+            @RequestParam @Parameter(description = "Primary key values; repeat the parameter for each key") List<String> _keys,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestParam Map<String, Object> params) {
+
+        log.info("Finding {} keys for query: {}", _keys.size(), queryName);
+
+        return execute(() -> {
+            Map<String, Object> lookupParams = new HashMap<>(params);
+            lookupParams.remove("_keys");
+            lookupParams.remove("_meta");
+
+            List<QueryRow> rows = queryService.findByKeys(queryName, _keys, lookupParams,
+                    deadlineFrom(requestTimeout));
+            List<Map<String, Object>> result = new ArrayList<>(rows.size());
+            rows.forEach(row -> result.add(row != null ? row.toMap() : null));
+            return result;
+        });
+    }
+
     @GetMapping("/select/{selectName}")
     @Operation(summary = "Get list of values", description = "Execute a select query for dropdowns/selects")
-    public ResponseEntity<QueryResponse<List<Map<String, Object>>>> getListOfValues(
+    public CompletableFuture<ResponseEntity<QueryResponse<List<Map<String, Object>>>>> getListOfValues(
             @PathVariable @Parameter(description = "Name of the registered select") String selectName,
             @RequestParam(required = false) @Parameter(description = "IDs to fetch (for default values)") List<String> _id,
             @RequestParam(required = false) @Parameter(description = "Search term to filter results") String _search,
             @RequestParam(required = false) @Parameter(description = "Start index for pagination") Integer _start,
             @RequestParam(required = false) @Parameter(description = "End index for pagination") Integer _end,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) @Parameter(description = "Entity tag from a previous response") String ifNoneMatch,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestHeader(name = LANE_HEADER, required = false) @Parameter(description = "Workload lane: INTERACTIVE, BATCH or EXPORT") String lane,
             @RequestParam MultiValueMap<String, String> allParams) {
 
         log.info("Executing select: {} with ids: {}, search: {}, pagination: {}-{}",
                 selectName, _id, _search, _start, _end);
 
-        return executeQueryList(() -> {
+        return async(requestTimeout, deadline -> executeQueryList(() -> {
             QueryContext queryContext = requestParser.parseForSelect(allParams, _id, _search, _start, _end,
                     queryService.getQueryDefinition(selectName));
+            queryContext.setDeadline(deadline);
+            queryContext.setLane(laneFrom(lane));
             return queryService.executeQuery(queryContext);
-        });
+        }, ifNoneMatch));
     }
 
     @GetMapping("/query/{queryName}/metadata")
@@ -146,14 +293,192 @@ public class QueryController extends QueryBaseController {
 
     @PostMapping("/execute/{name}")
     @Operation(summary = "Execute PL/SQL block", description = "Execute a registered PL/SQL block with parameters")
-    public ResponseEntity<QueryResponse<Map<String, Object>>> execute(
+    public CompletableFuture<ResponseEntity<QueryResponse<Map<String, Object>>>> execute(
             @PathVariable @Parameter(description = "Name of the registered PL/SQL block") String name,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
             @RequestBody(required = false) Map<String, Object> params) {
 
         log.info("Executing PL/SQL: {} with params: {}", name, params);
 
         // Handle null params gracefully
         Map<String, Object> finalParams = params != null ? params : Map.of();
-        return execute(() -> plsqlService.executePlsql(name, finalParams));
+        return async(requestTimeout,
+                deadline -> execute(() -> plsqlService.executePlsql(name, finalParams, deadline)));
+    }
+
+    @PostMapping("/workflow")
+    @Operation(summary = "Execute PL/SQL workflow", description = "Execute registered PL/SQL blocks in order in one transaction, feeding outputs of earlier steps into later ones")
+    public CompletableFuture<ResponseEntity<QueryResponse<Map<String, Map<String, Object>>>>> executeWorkflow(
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestBody PlsqlWorkflowRequest request) {
+
+        // A missing or empty step list is rejected by the service
+        List<PlsqlWorkflowStep> steps = request.getSteps() == null ? List.of()
+                : request.getSteps().stream()
+                        .map(step -> new PlsqlWorkflowStep(step.getName(), step.getAlias(), step.getParams(),
+                                step.getInputs()))
+                        .toList();
+        return async(requestTimeout, deadline -> execute(() -> plsqlService.executeWorkflow(steps, deadline)));
+    }
+
+    /**
+     * Submit a PL/SQL block as a background job. Answers 202 at once with the
+     * job id; the outputs are fetched from {@code GET /jobs/{id}}.
+     */
+    @PostMapping("/execute/{name}/async")
+    @Operation(summary = "Submit PL/SQL block as a job", description = "Run a registered PL/SQL block in the background and return a job id to poll")
+    public ResponseEntity<QueryResponse<PlsqlJobResponse>> submitPlsql(
+            @PathVariable @Parameter(description = "Name of the registered PL/SQL block") String name,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Job deadline from submission, e.g. 10m") String requestTimeout,
+            @RequestBody(required = false) Map<String, Object> params) {
+
+        log.info("Submitting PL/SQL job: {} with params: {}", name, params);
+
+        try {
+            PlsqlJob job = plsqlService.submitPlsql(name, params, deadlineFrom(requestTimeout));
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/v2/jobs/{jobId}")
+                            .buildAndExpand(job.getId())
+                            .toUri())
+                    .body(QueryResponse.single(PlsqlJobResponse.from(job), null, null, null));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Current state of a job. With {@code wait}, the response is held until
+     * the job finishes or the wait (capped by
+     * {@code query.registration.plsql-jobs.max-wait}) elapses, without holding
+     * a thread.
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get PL/SQL job", description = "Poll the state and outputs of a background PL/SQL job")
+    public CompletableFuture<ResponseEntity<QueryResponse<PlsqlJobResponse>>> getJob(
+            @PathVariable @Parameter(description = "Job id returned on submission") String jobId,
+            @RequestParam(name = "wait", required = false) @Parameter(description = "Wait up to this long for completion, e.g. 10s") String wait) {
+        PlsqlJob job;
+        Duration waitFor;
+        try {
+            job = plsqlService.getJob(jobId);
+            waitFor = waitFrom(wait);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+        if (job.getStatus().isDone() || waitFor.isZero()) {
+            return CompletableFuture.completedFuture(jobResponse(job));
+        }
+        // Time out a copy: completing the job's own future would retire a running job
+        return job.completion()
+                .copy()
+                .completeOnTimeout(job, waitFor.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(this::jobResponse);
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    @Operation(summary = "Cancel PL/SQL job", description = "Cancel a queued or running PL/SQL job")
+    public ResponseEntity<QueryResponse<PlsqlJobResponse>> cancelJob(
+            @PathVariable @Parameter(description = "Job id returned on submission") String jobId) {
+        return execute(() -> PlsqlJobResponse.from(plsqlService.cancelJob(jobId)));
+    }
+
+    private ResponseEntity<QueryResponse<PlsqlJobResponse>> jobResponse(PlsqlJob job) {
+        return ResponseEntity.ok(QueryResponse.single(PlsqlJobResponse.from(job), null, null, null));
+    }
+
+    private Duration waitFrom(String wait) {
+        if (wait == null || wait.isBlank()) {
+            return Duration.ZERO;
+        }
+        try {
+            Duration duration = DurationStyle.detectAndParse(wait.trim());
+            return duration.isNegative() ? Duration.ZERO
+                    : duration.compareTo(maxJobWait) > 0 ? maxJobWait : duration;
+        } catch (IllegalArgumentException e) {
+            throw new QueryException(QueryException.ErrorCode.VALIDATION_ERROR, "Invalid wait: " + wait);
+        }
+    }
+
+    /**
+     * Stream the rows of one REF CURSOR parameter as newline-delimited JSON,
+     * one row per line, while they are fetched. The last line is the response
+     * envelope: the outputs, with the cursor's row count, or the error that
+     * ended the stream.
+     */
+    @PostMapping(value = "/execute/{name}/cursor/{cursor}", produces = NDJSON)
+    @Operation(summary = "Stream a REF CURSOR of a PL/SQL block", description = "Execute a registered PL/SQL block and stream the rows of one REF CURSOR parameter as NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamCursor(
+            @PathVariable @Parameter(description = "Name of the registered PL/SQL block") String name,
+            @PathVariable @Parameter(description = "Name of the REF CURSOR parameter") String cursor,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestBody(required = false) Map<String, Object> params) {
+
+        log.info("Streaming cursor {} of PL/SQL: {} with params: {}", cursor, name, params);
+
+        // Parsed and published here: the body runs after the request thread has
+        // returned, when the request attributes are no longer bound
+        ExecutionDeadline deadline;
+        try {
+            deadline = deadlineFrom(requestTimeout);
+        } catch (QueryException e) {
+            return ResponseEntity.status(statusFor(e))
+                    .contentType(MediaType.parseMediaType(NDJSON))
+                    .body(out -> writeLine(out, QueryResponse.error(e.getErrorCode(), e.getMessage())));
+        }
+        publishDeadline(deadline);
+
+        Map<String, Object> finalParams = params != null ? params : Map.of();
+        StreamingResponseBody body = out -> {
+            QueryResponse<Map<String, Object>> result;
+            try {
+                Map<String, Object> outputs = plsqlService.streamCursor(name, finalParams, cursor,
+                        row -> writeLine(out, row), deadline);
+                result = QueryResponse.single(outputs, null, null, null);
+            } catch (QueryException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    // The client went away mid-stream; the transaction has been rolled back
+                    throw io.getCause();
+                }
+                log.error("Cursor stream failed: {}", e.getMessage());
+                result = QueryResponse.error(e.getErrorCode(), e.getMessage());
+            }
+            writeLine(out, result);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping("/execute/{name}/batch")
+    @Operation(summary = "Execute PL/SQL block for many parameter sets", description = "Execute a registered PL/SQL block once per parameter set, with per-set results in request order")
+    public CompletableFuture<ResponseEntity<QueryResponse<List<PlsqlBatchItemResponse>>>> executePlsqlBatch(
+            @PathVariable @Parameter(description = "Name of the registered PL/SQL block") String name,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) @Parameter(description = "Request deadline, e.g. 5s or 2500 (ms)") String requestTimeout,
+            @RequestBody List<Map<String, Object>> paramSets) {
+
+        log.info("Executing PL/SQL: {} for {} parameter sets", name, paramSets.size());
+
+        return async(requestTimeout, deadline -> execute(() -> {
+            List<PlsqlBatchResult> results = plsqlService.executePlsqlBatch(name, paramSets, deadline);
+            List<PlsqlBatchItemResponse> items = new ArrayList<>(results.size());
+            for (PlsqlBatchResult result : results) {
+                items.add(result.isSuccess()
+                        ? new PlsqlBatchItemResponse(result.index(), HttpStatus.OK.value(),
+                                QueryResponse.single(result.outputs(), null, null, null))
+                        : new PlsqlBatchItemResponse(result.index(), statusFor(result.error()),
+                                QueryResponse.error(result.error().getErrorCode(), result.error().getMessage())));
+            }
+            return items;
+        }));
     }
-}
\ No newline at end of file
+}
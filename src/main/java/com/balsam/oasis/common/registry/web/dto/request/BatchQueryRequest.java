@@ -0,0 +1,34 @@
+package com.balsam.oasis.common.registry.web.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Body of {@code POST /api/v2/batch}: several named query invocations run in
+ * one request.
+ */
+@Data
+public class BatchQueryRequest {
+
+    private List<Item> queries = new ArrayList<>();
+
+    @Data
+    public static class Item {
+        /**
+         * Client-chosen id echoed back in the result; defaults to the position
+         */
+        private String id;
+        private String name;
+        /**
+         * Same keys as the GET query string: parameters, filter.* and _sort.
+         * List values are sent as repeated parameters.
+         */
+        private Map<String, Object> params;
+        private Integer start = 0;
+        private Integer end = 50;
+        private String meta = "full";
+    }
+}
@@ -0,0 +1,32 @@
+package com.balsam.oasis.common.registry.web.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Body of {@code POST /api/v2/workflow}: registered PL/SQL blocks run in
+ * order in one transaction.
+ */
+@Data
+public class PlsqlWorkflowRequest {
+
+    private List<Step> steps = new ArrayList<>();
+
+    @Data
+    public static class Step {
+        private String name;
+        /**
+         * Name under which later steps and the result refer to this step's
+         * outputs; defaults to the block name
+         */
+        private String alias;
+        private Map<String, Object> params;
+        /**
+         * Parameter name to {@code alias.output} of an earlier step
+         */
+        private Map<String, String> inputs;
+    }
+}
@@ -0,0 +1,25 @@
+package com.balsam.oasis.common.registry.web.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a batch request. {@code status} is the HTTP status
+ * the item would have produced as a standalone request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+    private String id;
+    private String name;
+    private int status;
+    private QueryResponse<List<Map<String, Object>>> response;
+}
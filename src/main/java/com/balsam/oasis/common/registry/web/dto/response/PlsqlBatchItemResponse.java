@@ -0,0 +1,24 @@
+package com.balsam.oasis.common.registry.web.dto.response;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one parameter set of a batched PL/SQL execution, at the position
+ * of that set in the request. {@code status} is the HTTP status the set would
+ * have produced as a standalone request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlsqlBatchItemResponse {
+    private int index;
+    private int status;
+    private QueryResponse<Map<String, Object>> response;
+}
@@ -0,0 +1,39 @@
+package com.balsam.oasis.common.registry.web.dto.response;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.balsam.oasis.common.registry.domain.execution.PlsqlJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of a background PL/SQL job. {@code outputs} is present once the job
+ * has succeeded; {@code errorCode} and {@code message} once it has failed or
+ * was cancelled.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlsqlJobResponse {
+    private String id;
+    private String name;
+    private PlsqlJob.Status status;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private Map<String, Object> outputs;
+    private String errorCode;
+    private String message;
+
+    public static PlsqlJobResponse from(PlsqlJob job) {
+        return new PlsqlJobResponse(job.getId(), job.getName(), job.getStatus(), job.getSubmittedAt(),
+                job.getStartedAt(), job.getCompletedAt(), job.getOutputs(),
+                job.getError() != null ? job.getError().getErrorCode() : null,
+                job.getError() != null ? job.getError().getMessage() : null);
+    }
+}
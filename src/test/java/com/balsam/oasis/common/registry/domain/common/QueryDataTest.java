@@ -0,0 +1,47 @@
+package com.balsam.oasis.common.registry.domain.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+
+/**
+ * The content digest follows row values, not their identity or string form.
+ */
+class QueryDataTest {
+
+    @Test
+    void hashesArraysByContent() {
+        assertEquals(digest("blob", new byte[] { 1, 2, 3 }), digest("blob", new byte[] { 1, 2, 3 }));
+        assertNotEquals(digest("blob", new byte[] { 1, 2, 3 }), digest("blob", new byte[] { 1, 2, 4 }));
+        assertEquals(digest("ids", new long[] { 7, 8 }), digest("ids", new long[] { 7, 8 }));
+        assertNotEquals(digest("ids", new long[] { 7, 8 }), digest("ids", new long[] { 8, 7 }));
+    }
+
+    @Test
+    void distinguishesNullFromItsStringForm() {
+        assertNotEquals(digest("name", null), digest("name", "null"));
+        assertEquals(digest("name", null), digest("name", null));
+    }
+
+    @Test
+    void ignoresAttributeOrderButNotRowOrder() {
+        QueryRow first = QueryRow.create(Map.of("a", 1, "b", "x"), null);
+        QueryRow second = QueryRow.create(Map.of("a", 2, "b", "y"), null);
+
+        assertEquals(QueryData.computeDigest(List.of(first, second), 2),
+                QueryData.computeDigest(List.of(QueryRow.create(Map.of("b", "x", "a", 1), null), second), 2));
+        assertNotEquals(QueryData.computeDigest(List.of(first, second), 2),
+                QueryData.computeDigest(List.of(second, first), 2));
+    }
+
+    private static String digest(String key, Object value) {
+        return QueryData.computeDigest(List.of(QueryRow.create(Collections.singletonMap(key, value), null)), 1);
+    }
+}
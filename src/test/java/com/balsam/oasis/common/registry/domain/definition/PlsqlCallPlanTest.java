@@ -0,0 +1,122 @@
+package com.balsam.oasis.common.registry.domain.definition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.domain.definition.PlsqlCallPlan.BindSlot;
+
+/**
+ * Placeholders compile to JDBC slots in source order, split by direction.
+ */
+class PlsqlCallPlanTest {
+
+    @Test
+    void assignsSlotsInSourceOrder() {
+        PlsqlCallPlan plan = PlsqlCallPlan.compile(
+                "BEGIN pkg.run(:id, :name, :total); END;",
+                Map.of(
+                        "id", PlsqlParamDef.in("id", Integer.class).sqlType(Types.INTEGER).build(),
+                        "name", PlsqlParamDef.in("name", String.class).sqlType(Types.VARCHAR).build(),
+                        "total", PlsqlParamDef.out("total", BigDecimal.class).sqlType(Types.NUMERIC).build()));
+
+        assertEquals(3, plan.getSlotCount());
+        assertEquals(List.of(1, 2), indexes(plan.getInSlots()));
+        assertEquals(List.of("id", "name"), names(plan.getInSlots()));
+        assertEquals(List.of(3), indexes(plan.getOutSlots()));
+        assertEquals(Types.NUMERIC, plan.getOutSlots().get(0).sqlType());
+        assertEquals("BEGIN pkg.run(:id, :name, :total); END;", plan.getSql());
+    }
+
+    @Test
+    void repeatedPlaceholderGetsOneSlotPerUse() {
+        PlsqlParamDef<Integer> id = PlsqlParamDef.in("id", Integer.class).sqlType(Types.INTEGER).build();
+        PlsqlCallPlan plan = PlsqlCallPlan.compile(
+                "BEGIN pkg.log(:id); pkg.run(:id, :result); END;",
+                Map.of("id", id,
+                        "result", PlsqlParamDef.out("result", String.class).sqlType(Types.VARCHAR).build()));
+
+        assertEquals(3, plan.getSlotCount());
+        assertEquals(List.of(1, 2), indexes(plan.getInSlots()));
+        assertEquals(List.of("id", "id"), names(plan.getInSlots()));
+        // both uses share the binder resolved for the parameter
+        assertSame(plan.getInSlots().get(0).binder(), plan.getInSlots().get(1).binder());
+        assertEquals(List.of(3), indexes(plan.getOutSlots()));
+    }
+
+    @Test
+    void inoutAndCursorSlotsAreSplitByDirection() {
+        PlsqlCallPlan plan = PlsqlCallPlan.compile(
+                "BEGIN pkg.run(:counter, :rows, :filter); END;",
+                Map.of(
+                        "counter", PlsqlParamDef.inout("counter", Integer.class).sqlType(Types.INTEGER).build(),
+                        "rows", PlsqlParamDef.cursor("rows").build(),
+                        "filter", PlsqlParamDef.in("filter", String.class).sqlType(Types.VARCHAR).build()));
+
+        assertEquals(List.of("counter", "filter"), names(plan.getInSlots()));
+        assertEquals(List.of(1, 3), indexes(plan.getInSlots()));
+        assertEquals(List.of("counter", "rows"), names(plan.getOutSlots()));
+        assertEquals(List.of(1, 2), indexes(plan.getOutSlots()));
+        assertEquals(Types.REF_CURSOR, plan.getOutSlots().get(1).sqlType());
+    }
+
+    @Test
+    void rejectsPlaceholderWithoutDefinition() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> PlsqlCallPlan.compile("BEGIN pkg.run(:id, :missing); END;",
+                        Map.of("id", PlsqlParamDef.in("id", Integer.class).sqlType(Types.INTEGER).build())));
+
+        assertEquals("Parameter not found in definition: missing", error.getMessage());
+    }
+
+    @Test
+    void wrapsDefaultedInParametersInCoalesce() {
+        PlsqlCallPlan plan = PlsqlCallPlan.compile(
+                "BEGIN pkg.run(:asOf, :id); END;",
+                Map.of(
+                        "asOf", PlsqlParamDef.in("asOf", String.class).sqlType(Types.DATE)
+                                .plsqlDefault("TRUNC(SYSDATE)").build(),
+                        "id", PlsqlParamDef.in("id", Integer.class).sqlType(Types.INTEGER).build()));
+
+        assertEquals("BEGIN pkg.run(COALESCE(:asOf, TRUNC(SYSDATE)), :id); END;", plan.getSql());
+        assertEquals(List.of(1, 2), indexes(plan.getInSlots()));
+        assertSame(plan, plan.withDefaults(Set.of()));
+    }
+
+    @Test
+    void inlinesOmittedInoutDefaultsInCachedVariant() {
+        PlsqlCallPlan plan = PlsqlCallPlan.compile(
+                "BEGIN pkg.run(:id, :counter); pkg.log(:counter); END;",
+                Map.of(
+                        "id", PlsqlParamDef.in("id", Integer.class).sqlType(Types.INTEGER).build(),
+                        "counter", PlsqlParamDef.inout("counter", Integer.class).sqlType(Types.INTEGER)
+                                .plsqlDefault("0").build()));
+
+        assertEquals("BEGIN pkg.run(:id, :counter); pkg.log(:counter); END;", plan.getSql());
+
+        PlsqlCallPlan variant = plan.withDefaults(Set.of("counter"));
+
+        assertEquals("BEGIN pkg.run(:id, 0); pkg.log(0); END;", variant.getSql());
+        assertEquals(1, variant.getSlotCount());
+        assertEquals(List.of("id"), names(variant.getInSlots()));
+        assertEquals(List.of(), variant.getOutSlots());
+        assertSame(variant, plan.withDefaults(new HashSet<>(Set.of("counter"))));
+    }
+
+    private static List<Integer> indexes(List<BindSlot> slots) {
+        return slots.stream().map(BindSlot::index).toList();
+    }
+
+    private static List<String> names(List<BindSlot> slots) {
+        return slots.stream().map(BindSlot::name).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+
+/**
+ * Results survive the trip through pooled slabs, and slabs are reused on eviction.
+ */
+class OffHeapResultStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void roundTripsAcrossSlabs() {
+        OffHeapResultStore store = new OffHeapResultStore(64 * 1024, 64);
+        CachedResult result = result(200, "v1");
+
+        store.put("q:1", result);
+        CachedResult cached = store.get("q:1", "v1", null);
+
+        assertNotNull(cached);
+        assertEquals(result.totalCount(), cached.totalCount());
+        assertEquals(result.digest(), cached.digest());
+        assertEquals(result.expiresAt(), cached.expiresAt());
+        assertEquals(toMaps(result.rows()), toMaps(cached.rows()));
+        // a second read decodes from fresh views of the same slabs
+        assertEquals(toMaps(result.rows()), toMaps(store.get("q:1", "v1", null).rows()));
+    }
+
+    @Test
+    void rejectsStaleVersionAndInvalidates() {
+        OffHeapResultStore store = new OffHeapResultStore(64 * 1024, 64);
+        store.put("q:1", result(10, "v1"));
+        store.put("q:2", result(10, "v1"));
+
+        assertNull(store.get("q:1", "v2", null));
+        assertEquals(1, store.size());
+
+        store.invalidateByPrefix("q:");
+        assertEquals(0, store.size());
+        assertEquals(0, store.usedBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndReusesSlabs() {
+        OffHeapResultStore store = new OffHeapResultStore(16 * 1024, 1024);
+        CachedResult result = result(100, "v1");
+
+        store.put("a", result);
+        long perEntry = store.usedBytes();
+        int capacity = (int) (16 * 1024 / perEntry);
+        for (int i = 1; i < capacity; i++) {
+            store.put("k" + i, result);
+        }
+        assertNotNull(store.get("a", "v1", null));
+
+        store.put("overflow", result);
+
+        assertNotNull(store.get("a", "v1", null));
+        assertNull(store.get("k1", "v1", null));
+        assertNotNull(store.get("overflow", "v1", null));
+        assertEquals(capacity * perEntry, store.usedBytes());
+    }
+
+    @Test
+    void reportsResultsItCannotStore() {
+        OffHeapResultStore store = new OffHeapResultStore(1024, 64);
+        CachedResult unencodable = new CachedResult(
+                List.of(QueryRow.create(Map.of("note", new StringBuilder("x")), null)), 1, "d", "v1",
+                System.currentTimeMillis() + HOUR);
+
+        assertTrue(store.put("small", result(1, "v1")));
+        assertFalse(store.put("small", unencodable));
+        assertNull(store.get("small", "v1", null));
+        assertFalse(store.put("large", result(1000, "v1")));
+        assertEquals(0, store.size());
+    }
+
+    private static CachedResult result(int rows, String version) {
+        List<QueryRow> list = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "row-" + i);
+            data.put("amount", new BigDecimal(i).movePointLeft(2));
+            list.add(QueryRow.create(data, null));
+        }
+        return new CachedResult(list, rows, "digest-" + rows, version, System.currentTimeMillis() + HOUR);
+    }
+
+    private static List<Map<String, Object>> toMaps(List<QueryRow> rows) {
+        return rows.stream().map(QueryRow::toMap).toList();
+    }
+}
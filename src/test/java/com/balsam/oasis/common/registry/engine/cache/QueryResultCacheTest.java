@@ -0,0 +1,95 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.Pagination;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.FilterOp;
+import com.balsam.oasis.common.registry.domain.definition.SortDir;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+
+/**
+ * Cache keys built by a definition's key generator, and tier selection.
+ */
+class QueryResultCacheTest {
+
+    private final QueryResultCache cache = new QueryResultCache(100, null);
+
+    private final QueryDefinitionBuilder definition = QueryDefinitionBuilder.builder("employees")
+            .sql("SELECT * FROM employees")
+            .cache(true)
+            .cacheKey(params -> new TreeMap<>(params).toString())
+            .build();
+
+    @Test
+    void generatorKeyIsStableAcrossRequests() {
+        QueryContext first = context(0, 50);
+        QueryContext second = context(0, 50);
+        second.setDeadline(ExecutionDeadline.after(Duration.ofSeconds(5)));
+        second.setTotalCount(123);
+
+        assertEquals(cache.key(first, "sql-1", Map.of()), cache.key(second, "sql-2", Map.of()));
+    }
+
+    @Test
+    void generatorKeySeparatesPagesFiltersAndSorts() {
+        QueryContext page = context(0, 50);
+        QueryContext nextPage = context(50, 100);
+        QueryContext filtered = context(0, 50);
+        filtered.addFilter("salary", FilterOp.GREATER_THAN, 1000);
+        QueryContext sorted = context(0, 50);
+        sorted.getSorts().add(QueryContext.SortSpec.builder().attribute("name").direction(SortDir.ASC).build());
+
+        String key = cache.key(page, "", Map.of());
+        assertNotEquals(key, cache.key(nextPage, "", Map.of()));
+        assertNotEquals(key, cache.key(filtered, "", Map.of()));
+        assertNotEquals(key, cache.key(sorted, "", Map.of()));
+    }
+
+    @Test
+    void generatorReceivesTheRequestParameters() {
+        QueryContext context = context(0, 50);
+        context.addParam("departmentId", 10);
+
+        assertNotEquals(cache.key(context(0, 50), "", Map.of()), cache.key(context, "", Map.of()));
+        assertTrue(cache.key(context, "", Map.of()).contains("{departmentId=10}"));
+    }
+
+    @Test
+    void keepsResultsTheOffHeapTierRefusesOnTheHeap() {
+        QueryResultCache tiered = new QueryResultCache(100, null, new OffHeapResultStore(1024, 1024), 1);
+        QueryContext context = context(0, 50);
+        List<QueryRow> rows = List.of(
+                QueryRow.create(Map.of("id", 1, "note", new StringBuilder("not encodable")), null),
+                QueryRow.create(Map.of("id", 2, "note", new StringBuilder("not encodable")), null));
+
+        tiered.put(definition, "large", QueryData.builder().rows(rows).build(), 2);
+
+        CachedResult cached = tiered.get(definition, "large", context);
+        assertNotNull(cached);
+        assertEquals(2, cached.rows().size());
+        assertEquals(1, tiered.size());
+    }
+
+    private QueryContext context(int start, int end) {
+        return QueryContext.builder()
+                .definition(definition)
+                .params(new HashMap<>())
+                .pagination(Pagination.builder().start(start).end(end).build())
+                .build();
+    }
+}
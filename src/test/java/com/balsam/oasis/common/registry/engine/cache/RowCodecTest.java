@@ -0,0 +1,95 @@
+package com.balsam.oasis.common.registry.engine.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.engine.query.QueryRow;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Every value tag decodes to an equal value of the same type.
+ */
+class RowCodecTest {
+
+    @Test
+    void roundTripsEveryTag() throws IOException {
+        Timestamp timestamp = Timestamp.valueOf("2024-05-01 10:15:30.123456789");
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("a", 1);
+        nested.put("b", "two");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("string", "héllo");
+        data.put("integer", 42);
+        data.put("long", 1L << 40);
+        data.put("decimal", new BigDecimal("-12345.6789"));
+        data.put("double", 1.5d);
+        data.put("float", 2.5f);
+        data.put("short", (short) 7);
+        data.put("byte", (byte) -3);
+        data.put("boolean", true);
+        data.put("timestamp", timestamp);
+        data.put("sqlDate", java.sql.Date.valueOf("2024-05-01"));
+        data.put("utilDate", new java.util.Date(1_714_557_600_000L));
+        data.put("localDate", LocalDate.of(2024, 5, 1));
+        data.put("localDateTime", LocalDateTime.of(2024, 5, 1, 10, 15, 30, 500));
+        data.put("localTime", LocalTime.of(23, 59, 58, 1));
+        data.put("instant", Instant.ofEpochSecond(1_714_557_600L, 999));
+        data.put("offsetDateTime", OffsetDateTime.of(2024, 5, 1, 10, 15, 30, 7, ZoneOffset.ofHours(3)));
+        data.put("bigInteger", new BigInteger("-123456789012345678901234567890"));
+        data.put("list", List.of(1, "x", List.of(2L)));
+        data.put("map", nested);
+
+        List<Map<String, Object>> decoded = roundTrip(List.of(QueryRow.create(data, null), QueryRow.create(
+                Map.of("bytes", new byte[] { 1, 2, 3 }, "string", "second"), null)));
+
+        assertEquals(data.keySet(), decoded.get(0).keySet());
+        data.forEach((key, value) -> {
+            Object actual = decoded.get(0).get(key);
+            if (!(value instanceof List || value instanceof Map)) {
+                assertEquals(value.getClass(), actual.getClass(), key);
+            }
+            assertEquals(value, actual, key);
+        });
+        assertEquals(timestamp.getNanos(), ((Timestamp) decoded.get(0).get("timestamp")).getNanos());
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) decoded.get(1).get("bytes"));
+        assertEquals("second", decoded.get(1).get("string"));
+    }
+
+    @Test
+    void refusesValuesWithoutTag() {
+        QueryRow row = QueryRow.create(Map.of("clob", new StringBuilder("not cacheable")), null);
+
+        assertThrows(IOException.class, () -> RowCodec.writeRows(ByteStreams.newDataOutput(), List.of(row)));
+    }
+
+    private static List<Map<String, Object>> roundTrip(List<QueryRow> rows) throws IOException {
+        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        RowCodec.writeRows(out, rows);
+        return RowCodec.readRows(new DataInputStream(new ByteArrayInputStream(out.toByteArray())), null)
+                .stream()
+                .map(QueryRow::toMap)
+                .toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Increase and backoff of the AIMD limit, driven by synthetic latency samples.
+ */
+class AdaptiveLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void rejectsBeyondLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10, 2.0, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.abandon();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsOnUncongestedCompletionsWhileBusy() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 5, 2.0, 0.5);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+
+        // in-flight stays at least half the limit for the first releases
+        assertFalse(limiter.release(50 * MILLIS, false));
+        assertEquals(5, limiter.getLimit());
+        assertFalse(limiter.release(50 * MILLIS, false));
+        assertEquals(5, limiter.getLimit(), "capped at max");
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 20, 2.0, 0.5);
+        limiter.tryAcquire();
+
+        limiter.release(50 * MILLIS, false);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffOnDroppedExecution() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 3, 20, 2.0, 0.5);
+
+        limiter.tryAcquire();
+        assertTrue(limiter.release(0, true));
+        assertEquals(5, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release(0, true);
+        assertEquals(3, limiter.getLimit(), "floored at min");
+    }
+
+    @Test
+    void backsOffWhenLatencyExceedsBaseline() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 20, 2.0, 0.5);
+        limiter.tryAcquire();
+        limiter.release(20 * MILLIS, false);
+
+        boolean congested = false;
+        for (int i = 0; i < 10 && !congested; i++) {
+            limiter.tryAcquire();
+            congested = limiter.release(200 * MILLIS, false);
+        }
+
+        assertTrue(congested);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void ignoresSlowdownOfVeryFastExecutions() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 20, 2.0, 0.5);
+        limiter.tryAcquire();
+        limiter.release(MILLIS / 10, false);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            assertFalse(limiter.release(5 * MILLIS, false));
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void globalReleaseFollowsCongestionSignal() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 20, 2.0, 0.5);
+
+        limiter.tryAcquire();
+        limiter.release(true);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,107 @@
+package com.balsam.oasis.common.registry.engine.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.domain.definition.ExecutionLane;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+
+/**
+ * Lane budgets, queue limits, priority between lanes and order within a lane.
+ */
+class LaneSchedulerTest {
+
+    private static final ExecutionDeadline NO_DEADLINE = ExecutionDeadline.none();
+
+    @Test
+    void rejectsBeyondTheQueue() {
+        LaneScheduler scheduler = scheduler(1, new LaneScheduler.Budget(1, 0, Duration.ofSeconds(5)));
+        scheduler.acquire(ExecutionLane.INTERACTIVE, "first", NO_DEADLINE);
+
+        QueryException error = assertThrows(QueryException.class,
+                () -> scheduler.acquire(ExecutionLane.INTERACTIVE, "second", NO_DEADLINE));
+
+        assertEquals(QueryException.ErrorCode.CONCURRENCY_LIMIT_EXCEEDED.getCode(), error.getErrorCode());
+        assertEquals(0, scheduler.queued(ExecutionLane.INTERACTIVE));
+    }
+
+    @Test
+    void rejectsWhenTheQueueTimeoutElapses() {
+        LaneScheduler scheduler = scheduler(1, new LaneScheduler.Budget(1, 5, Duration.ofMillis(100)));
+        scheduler.acquire(ExecutionLane.BATCH, "first", NO_DEADLINE);
+
+        long start = System.nanoTime();
+        assertThrows(QueryException.class, () -> scheduler.acquire(ExecutionLane.BATCH, "second", NO_DEADLINE));
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, scheduler.queued(ExecutionLane.BATCH));
+    }
+
+    @Test
+    void freedSlotGoesToTheHigherPriorityLane() throws Exception {
+        LaneScheduler scheduler = scheduler(1, new LaneScheduler.Budget(1, 5, Duration.ofSeconds(5)));
+        scheduler.acquire(ExecutionLane.BATCH, "running", NO_DEADLINE);
+
+        CompletableFuture<Void> export = acquireAsync(scheduler, ExecutionLane.EXPORT);
+        awaitTrue(() -> scheduler.queued(ExecutionLane.EXPORT) == 1);
+        CompletableFuture<Void> interactive = acquireAsync(scheduler, ExecutionLane.INTERACTIVE);
+        awaitTrue(() -> scheduler.queued(ExecutionLane.INTERACTIVE) == 1);
+
+        scheduler.release(ExecutionLane.BATCH);
+
+        interactive.get(5, TimeUnit.SECONDS);
+        assertEquals(1, scheduler.running(ExecutionLane.INTERACTIVE));
+        assertEquals(1, scheduler.queued(ExecutionLane.EXPORT));
+
+        scheduler.release(ExecutionLane.INTERACTIVE);
+        export.get(5, TimeUnit.SECONDS);
+        assertEquals(1, scheduler.running(ExecutionLane.EXPORT));
+    }
+
+    @Test
+    void newRequestDoesNotOvertakeQueuedOnes() throws Exception {
+        LaneScheduler scheduler = scheduler(1, new LaneScheduler.Budget(1, 5, Duration.ofSeconds(5)));
+        scheduler.acquire(ExecutionLane.INTERACTIVE, "running", NO_DEADLINE);
+        CompletableFuture<Void> queued = acquireAsync(scheduler, ExecutionLane.INTERACTIVE);
+        awaitTrue(() -> scheduler.queued(ExecutionLane.INTERACTIVE) == 1);
+
+        scheduler.release(ExecutionLane.INTERACTIVE);
+        // a newcomer that will not wait must not take the slot the queued request was woken for
+        assertThrows(QueryException.class, () -> scheduler.acquire(ExecutionLane.INTERACTIVE, "newcomer",
+                ExecutionDeadline.after(Duration.ZERO)));
+
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(1, scheduler.running(ExecutionLane.INTERACTIVE));
+    }
+
+    private static LaneScheduler scheduler(int total, LaneScheduler.Budget budget) {
+        return new LaneScheduler(total, Map.of(
+                ExecutionLane.INTERACTIVE, budget,
+                ExecutionLane.BATCH, budget,
+                ExecutionLane.EXPORT, budget));
+    }
+
+    private static CompletableFuture<Void> acquireAsync(LaneScheduler scheduler, ExecutionLane lane) {
+        return CompletableFuture.runAsync(() -> scheduler.acquire(lane, lane.name(), NO_DEADLINE));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
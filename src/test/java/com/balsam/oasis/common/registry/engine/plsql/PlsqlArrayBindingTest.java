@@ -0,0 +1,142 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+
+/**
+ * Collection parameters bound through {@code createArrayOf} on an embedded H2
+ * database, which has no Oracle collection types.
+ */
+class PlsqlArrayBindingTest {
+
+    private EmbeddedDatabase database;
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private PlsqlExecutorImpl executor;
+
+    private final PlsqlDefinitionBuilder insert = PlsqlDefinitionBuilder.builder("insertBag")
+            .plsql("INSERT INTO bag (id, ids) VALUES (:id, :ids)")
+            .parameter(PlsqlParamDef.in("id", Integer.class).required(true).sqlType(Types.INTEGER).build())
+            .parameter(PlsqlParamDef.array("ids", "NUMBER_TABLE", Integer.class).build())
+            .build();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE bag (id INT PRIMARY KEY, ids INTEGER ARRAY)");
+
+        connection = database.getConnection();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(namedToPositional(connection), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        executor = new PlsqlExecutorImpl(jdbcTemplate, new PlsqlRegistryImpl(), Runnable::run,
+                new DataSourceTransactionManager(dataSource), 3);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+        database.shutdown();
+    }
+
+    @Test
+    void bindsAList() {
+        insert(1, List.of(1, 2, 3));
+
+        assertEquals(List.of(1, 2, 3), stored(1));
+    }
+
+    @Test
+    void bindsAnObjectArrayConvertingItsElements() {
+        insert(2, new Object[] { "4", 5L, null });
+
+        assertEquals(Arrays.asList(4, 5, null), stored(2));
+    }
+
+    @Test
+    void bindsAPrimitiveArray() {
+        insert(3, new int[] { 6, 7 });
+
+        assertEquals(List.of(6, 7), stored(3));
+    }
+
+    @Test
+    void bindsASingleValueAsOneElement() {
+        insert(4, 8);
+
+        assertEquals(List.of(8), stored(4));
+    }
+
+    @Test
+    void bindsNullAsSqlNull() {
+        insert(5, null);
+
+        assertNull(stored(5));
+    }
+
+    private void insert(int id, Object ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        params.put("ids", ids);
+        executor.prepare(insert).withParams(params).execute();
+    }
+
+    private List<Object> stored(int id) {
+        return jdbcTemplate.queryForObject("SELECT ids FROM bag WHERE id = ?", (rs, rowNum) -> {
+            Array array = rs.getArray(1);
+            return array != null ? Arrays.asList((Object[]) array.getArray()) : null;
+        }, id);
+    }
+
+    /**
+     * A connection that rewrites {@code :name} to {@code ?} in prepareCall and
+     * ignores close, so the transaction manager and the test share it.
+     */
+    private Connection namedToPositional(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (method.getName().equals("prepareCall")) {
+                        args[0] = ((String) args[0]).replaceAll(":[a-zA-Z_]\\w*", "?");
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlBatchResult;
+
+/**
+ * Batched execution on an embedded H2 database, whose JDBC driver sees the
+ * {@code :name} placeholders of the block as plain {@code ?} markers.
+ */
+class PlsqlExecutorBatchTest {
+
+    private EmbeddedDatabase database;
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private PlsqlExecutorImpl executor;
+    private final AtomicInteger executeBatchCalls = new AtomicInteger();
+
+    private final PlsqlDefinitionBuilder insert = PlsqlDefinitionBuilder.builder("insertItem")
+            .plsql("INSERT INTO item (id) VALUES (:id)")
+            .parameter(PlsqlParamDef.in("id", Integer.class).required(true).sqlType(Types.INTEGER).build())
+            .build();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE item (id INT PRIMARY KEY)");
+
+        connection = database.getConnection();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(namedToPositional(connection), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        executor = new PlsqlExecutorImpl(jdbcTemplate, new PlsqlRegistryImpl(), Runnable::run,
+                new DataSourceTransactionManager(dataSource), 3);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+        database.shutdown();
+    }
+
+    @Test
+    void commitsEverySetButTheFailingOneInRequestOrder() {
+        List<PlsqlBatchResult> results = executor.doExecuteBatch(insert,
+                List.of(Map.of("id", 1), Map.of("id", 2), Map.of("id", 1), Map.of("id", 4), Map.of("id", 5), Map.of()),
+                ExecutionDeadline.after(Duration.ofSeconds(30)));
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(PlsqlBatchResult::index).toList());
+        assertEquals(List.of(true, true, false, true, true, false),
+                results.stream().map(PlsqlBatchResult::isSuccess).toList());
+        assertEquals(QueryException.ErrorCode.EXECUTION_ERROR.getCode(), results.get(2).error().getErrorCode());
+        assertTrue(results.get(5).error().getMessage().contains("id"));
+        assertEquals(List.of(1, 2, 4, 5), jdbcTemplate.queryForList("SELECT id FROM item ORDER BY id", Integer.class));
+        // both chunks went out as one batch; only the first was replayed set by set
+        assertEquals(2, executeBatchCalls.get());
+    }
+
+    @Test
+    void batchesChunksWithoutFailures() {
+        List<PlsqlBatchResult> results = executor.doExecuteBatch(insert,
+                List.of(Map.of("id", 10), Map.of("id", 11), Map.of("id", 12), Map.of("id", 13)),
+                ExecutionDeadline.after(Duration.ofSeconds(30)));
+
+        assertTrue(results.stream().allMatch(PlsqlBatchResult::isSuccess));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class));
+        assertEquals(2, executeBatchCalls.get());
+    }
+
+    /**
+     * A connection that rewrites {@code :name} to {@code ?} in prepareCall,
+     * counts executeBatch calls and ignores close, so the transaction manager
+     * and the test share it.
+     */
+    private Connection namedToPositional(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (method.getName().equals("prepareCall")) {
+                        args[0] = ((String) args[0]).replaceAll(":[a-zA-Z_]\\w*", "?");
+                        return countingBatches((CallableStatement) invoke(target, method, args));
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private CallableStatement countingBatches(CallableStatement target) {
+        return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { CallableStatement.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("executeBatch")) {
+                        executeBatchCalls.incrementAndGet();
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
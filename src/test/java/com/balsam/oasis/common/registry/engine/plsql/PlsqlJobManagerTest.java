@@ -0,0 +1,134 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlJob;
+
+/**
+ * Job lifecycle: waiting, cancellation, queue limits and retention.
+ */
+class PlsqlJobManagerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PlsqlJobManager manager;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        manager.shutdown();
+    }
+
+    @Test
+    void timedOutWaitLeavesRunningJobActive() throws Exception {
+        manager = new PlsqlJobManager(1, 1, Duration.ofMinutes(5), 10);
+        PlsqlJob job = manager.submit("slow", ExecutionDeadline.none(), deadline -> blockUntilReleased());
+        awaitTrue(() -> job.getStatus() == PlsqlJob.Status.RUNNING);
+
+        // the wait a poll with ?wait= performs
+        PlsqlJob waited = job.completion().copy()
+                .completeOnTimeout(job, 50, TimeUnit.MILLISECONDS)
+                .get(5, TimeUnit.SECONDS);
+
+        assertSame(job, waited);
+        assertEquals(PlsqlJob.Status.RUNNING, job.getStatus());
+        assertFalse(job.completion().isDone());
+        assertSame(job, manager.get(job.getId()));
+
+        release.countDown();
+        job.completion().get(5, TimeUnit.SECONDS);
+        assertEquals(PlsqlJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(Map.of("done", true), manager.get(job.getId()).getOutputs());
+    }
+
+    @Test
+    void cancelledQueuedJobNeverRuns() throws Exception {
+        manager = new PlsqlJobManager(1, 1, Duration.ofMinutes(5), 10);
+        PlsqlJob running = manager.submit("slow", ExecutionDeadline.none(), deadline -> blockUntilReleased());
+        AtomicBoolean ran = new AtomicBoolean();
+        PlsqlJob queued = manager.submit("queued", ExecutionDeadline.none(), deadline -> {
+            ran.set(true);
+            return Map.of();
+        });
+
+        assertSame(queued, manager.cancel(queued.getId()));
+        assertEquals(PlsqlJob.Status.CANCELLED, queued.getStatus());
+        assertTrue(queued.getDeadline().isCancelled());
+
+        release.countDown();
+        running.completion().get(5, TimeUnit.SECONDS);
+        manager.shutdown();
+        assertFalse(ran.get());
+        assertEquals(PlsqlJob.Status.CANCELLED, manager.get(queued.getId()).getStatus());
+    }
+
+    @Test
+    void rejectsSubmissionsBeyondTheQueue() {
+        manager = new PlsqlJobManager(1, 1, Duration.ofMinutes(5), 10);
+        PlsqlJob running = manager.submit("slow", ExecutionDeadline.none(), deadline -> blockUntilReleased());
+        awaitTrue(() -> running.getStatus() == PlsqlJob.Status.RUNNING);
+        manager.submit("queued", ExecutionDeadline.none(), deadline -> Map.of());
+
+        QueryException error = assertThrows(QueryException.class,
+                () -> manager.submit("rejected", ExecutionDeadline.none(), deadline -> Map.of()));
+
+        assertEquals(QueryException.ErrorCode.OVERLOADED.getCode(), error.getErrorCode());
+    }
+
+    @Test
+    void forgetsFinishedJobsBeyondRetention() throws Exception {
+        manager = new PlsqlJobManager(1, 10, Duration.ofSeconds(1), 1);
+        PlsqlJob first = manager.submit("first", ExecutionDeadline.none(), deadline -> Map.of());
+        first.completion().get(5, TimeUnit.SECONDS);
+        PlsqlJob second = manager.submit("second", ExecutionDeadline.none(), deadline -> Map.of());
+        second.completion().get(5, TimeUnit.SECONDS);
+
+        // only the most recently finished job is kept
+        awaitTrue(() -> manager.get(first.getId()) == null);
+        assertSame(second, manager.get(second.getId()));
+
+        // and only for the retention period
+        awaitTrue(() -> manager.get(second.getId()) == null);
+        assertNull(manager.cancel(second.getId()));
+    }
+
+    private Map<String, Object> blockUntilReleased() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Map.of("done", true);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+import com.balsam.oasis.common.registry.example.OracleHRPlsqlConfig;
+
+/**
+ * Overloads resolve by supplied parameter names, and ambiguous pairs are rejected.
+ */
+class PlsqlOverloadsTest {
+
+    private final PlsqlDefinitionBuilder byId = overload("BEGIN pkg.find(:id, :result); END;",
+            required("id"), optional("verbose"));
+    private final PlsqlDefinitionBuilder byName = overload("BEGIN pkg.find(:name, :result); END;",
+            required("name"));
+
+    @Test
+    void resolvesDisjointOverloads() {
+        PlsqlOverloads overloads = PlsqlOverloads.of(List.of(byId, byName));
+
+        assertSame(byId, overloads.resolve(Map.of("id", 1)));
+        assertSame(byId, overloads.resolve(Map.of("id", 1, "verbose", "Y")));
+        assertSame(byName, overloads.resolve(Map.of("name", "x")));
+        // memoized resolution returns the same overload
+        assertSame(byName, overloads.resolve(Map.of("name", "y")));
+    }
+
+    @Test
+    void ignoresUnknownKeys() {
+        PlsqlOverloads overloads = PlsqlOverloads.of(List.of(byId, byName));
+
+        assertSame(byId, overloads.resolve(Map.of("id", 1, "_trace", true)));
+        assertSame(byName, overloads.resolve(Map.of("name", "x", "result", "ignored")));
+    }
+
+    @Test
+    void returnsNullWhenNoOverloadMatches() {
+        PlsqlOverloads overloads = PlsqlOverloads.of(List.of(byId, byName));
+
+        assertNull(overloads.resolve(Map.of()));
+        assertNull(overloads.resolve(Map.of("id", 1, "name", "x")));
+        assertNull(overloads.resolve(Map.of("verbose", "Y")));
+    }
+
+    @Test
+    void rejectsAmbiguousOverloads() {
+        PlsqlDefinitionBuilder byIdWithFlag = overload("BEGIN pkg.find2(:id, :result); END;",
+                required("id"), optional("flag"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> PlsqlOverloads.of(List.of(byId, byIdWithFlag)));
+
+        assertEquals("Ambiguous PL/SQL overloads of 'find': overloads 1 and 2 both match parameters [id]",
+                error.getMessage());
+    }
+
+    @Test
+    void registersShippedExamples() {
+        PlsqlRegistryImpl registry = new PlsqlRegistryImpl();
+
+        new OracleHRPlsqlConfig(registry).registerPlsqlBlocks();
+
+        assertNotNull(registry.get("addJobHistory"));
+        assertEquals(1, registry.size());
+    }
+
+    private static PlsqlDefinitionBuilder overload(String sql, PlsqlParamDef<?>... inputs) {
+        PlsqlDefinitionBuilder.Builder builder = PlsqlDefinitionBuilder.builder("find")
+                .plsql(sql)
+                .parameter(PlsqlParamDef.out("result", String.class).sqlType(Types.VARCHAR).build());
+        for (PlsqlParamDef<?> input : inputs) {
+            builder.parameter(input);
+        }
+        return builder.build();
+    }
+
+    private static PlsqlParamDef<String> required(String name) {
+        return PlsqlParamDef.in(name, String.class).required(true).sqlType(Types.VARCHAR).build();
+    }
+
+    private static PlsqlParamDef<String> optional(String name) {
+        return PlsqlParamDef.in(name, String.class).required(false).sqlType(Types.VARCHAR).build();
+    }
+}
@@ -0,0 +1,218 @@
+package com.balsam.oasis.common.registry.engine.plsql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.domain.execution.PlsqlWorkflowStep;
+
+/**
+ * Workflows on an embedded H2 database: outputs feed later steps, one commit
+ * covers every step, a failing step rolls back all of them, and only the
+ * bulkheads of the resolved overloads are taken.
+ */
+class PlsqlWorkflowTest {
+
+    private static final ExecutionDeadline DEADLINE = ExecutionDeadline.after(Duration.ofSeconds(30));
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private PlsqlExecutorImpl executor;
+    private PlsqlDefinitionBuilder singleItem;
+    private final AtomicInteger commits = new AtomicInteger();
+    private final AtomicInteger rollbacks = new AtomicInteger();
+    private final CountDownLatch holding = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE orders ("
+                + "id INT GENERATED BY DEFAULT AS IDENTITY (START WITH 1001) PRIMARY KEY, customer INT)");
+        new JdbcTemplate(database).execute("CREATE TABLE order_line ("
+                + "order_id INT REFERENCES orders (id), item INT, qty INT CHECK (qty > 0))");
+
+        DataSource dataSource = namedToPositional(database);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        PlsqlRegistryImpl registry = new PlsqlRegistryImpl();
+        registry.register(PlsqlDefinitionBuilder.builder("createOrder")
+                .plsql(":orderId = CALL (SELECT id FROM FINAL TABLE "
+                        + "(INSERT INTO orders (customer) VALUES (:customer)))")
+                .parameter(PlsqlParamDef.out("orderId", Integer.class).sqlType(Types.INTEGER).build())
+                .parameter(PlsqlParamDef.in("customer", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .build());
+        registry.register(PlsqlDefinitionBuilder.builder("addOrderLine")
+                .plsql("INSERT INTO order_line (order_id, item, qty) VALUES (:orderId, :item, :qty)")
+                .parameter(PlsqlParamDef.in("orderId", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .parameter(PlsqlParamDef.in("item", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .parameter(PlsqlParamDef.in("qty", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .build());
+        // an overload the steps below resolve to only without a qty, whose one slot a test holds
+        singleItem = PlsqlDefinitionBuilder.builder("addOrderLine")
+                .plsql("INSERT INTO order_line (order_id, item, qty) VALUES (:orderId, :item, 1)")
+                .parameter(PlsqlParamDef.in("orderId", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .parameter(PlsqlParamDef.in("item", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .maxConcurrency(1)
+                .postProcessor((outputs, context) -> {
+                    holding.countDown();
+                    await(release);
+                    return outputs;
+                })
+                .build();
+        registry.register(singleItem);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource) {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                commits.incrementAndGet();
+                super.doCommit(status);
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+                rollbacks.incrementAndGet();
+                super.doRollback(status);
+            }
+        };
+        executor = new PlsqlExecutorImpl(jdbcTemplate, registry, Runnable::run, transactionManager, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        database.shutdown();
+    }
+
+    @Test
+    void feedsOutputsIntoLaterStepsAndCommitsOnce() {
+        Map<String, Map<String, Object>> results = executor.doExecuteWorkflow(List.of(
+                new PlsqlWorkflowStep("createOrder", "order", Map.of("customer", 42), null),
+                new PlsqlWorkflowStep("addOrderLine", "first", Map.of("item", 7, "qty", 2),
+                        Map.of("orderId", "order.orderId")),
+                new PlsqlWorkflowStep("addOrderLine", "second", Map.of("item", 8, "qty", 1),
+                        Map.of("orderId", "order.orderId"))),
+                DEADLINE);
+
+        assertEquals(List.of("order", "first", "second"), List.copyOf(results.keySet()));
+        assertEquals(1001, results.get("order").get("orderId"));
+        assertEquals(List.of(1001, 1001),
+                jdbcTemplate.queryForList("SELECT order_id FROM order_line ORDER BY item", Integer.class));
+        assertEquals(1, commits.get());
+        assertEquals(0, rollbacks.get());
+    }
+
+    @Test
+    void failingStepRollsBackEveryStep() {
+        QueryException error = assertThrows(QueryException.class, () -> executor.doExecuteWorkflow(List.of(
+                new PlsqlWorkflowStep("createOrder", "order", Map.of("customer", 42), null),
+                new PlsqlWorkflowStep("addOrderLine", "first", Map.of("item", 7, "qty", 2),
+                        Map.of("orderId", "order.orderId")),
+                new PlsqlWorkflowStep("addOrderLine", "bad", Map.of("item", 8, "qty", -1),
+                        Map.of("orderId", "order.orderId"))),
+                DEADLINE));
+
+        assertTrue(error.getMessage().startsWith("Workflow step 3 ('bad') failed"), error.getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_line", Integer.class));
+        assertEquals(0, commits.get());
+        assertEquals(1, rollbacks.get());
+    }
+
+    @Test
+    void takesOnlyTheBulkheadsOfTheResolvedOverloads() throws Exception {
+        int orderId = jdbcTemplate.queryForObject(
+                "SELECT id FROM FINAL TABLE (INSERT INTO orders (customer) VALUES (1))", Integer.class);
+        CompletableFuture<Map<String, Object>> holder = CompletableFuture.supplyAsync(() -> executor
+                .prepare(singleItem)
+                .withParams(Map.of("orderId", orderId, "item", 1))
+                .execute());
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        executor.doExecuteWorkflow(List.of(
+                new PlsqlWorkflowStep("createOrder", "order", Map.of("customer", 42), null),
+                new PlsqlWorkflowStep("addOrderLine", "line", Map.of("item", 7, "qty", 2),
+                        Map.of("orderId", "order.orderId"))),
+                DEADLINE);
+
+        // the held overload is refused once a step resolves to it
+        QueryException error = assertThrows(QueryException.class, () -> executor.doExecuteWorkflow(List.of(
+                new PlsqlWorkflowStep("createOrder", "order", Map.of("customer", 42), null),
+                new PlsqlWorkflowStep("addOrderLine", "line", Map.of("item", 7),
+                        Map.of("orderId", "order.orderId"))),
+                DEADLINE));
+        assertEquals(QueryException.ErrorCode.CONCURRENCY_LIMIT_EXCEEDED.getCode(), error.getErrorCode());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A data source whose connections rewrite {@code :name} to {@code ?} in
+     * prepareCall
+     */
+    private DataSource namedToPositional(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? namedToPositional(connection) : result;
+                });
+    }
+
+    private Connection namedToPositional(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareCall")) {
+                        args[0] = ((String) args[0]).replaceAll(":[a-zA-Z_]\\w*", "?");
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
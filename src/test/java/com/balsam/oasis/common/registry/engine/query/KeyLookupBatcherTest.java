@@ -0,0 +1,125 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.exception.QueryException;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.engine.cache.QueryResultCache;
+import com.balsam.oasis.common.registry.engine.concurrency.ConcurrencyLimiter;
+
+/**
+ * Merged single-key lookups on an embedded H2 database, where key 2 matches
+ * two rows.
+ */
+class KeyLookupBatcherTest {
+
+    private EmbeddedDatabase database;
+    private QueryExecutorImpl executor;
+    private KeyLookupBatcher batcher;
+
+    private final QueryDefinitionBuilder people = QueryDefinitionBuilder.builder("people")
+            .sql("SELECT id, name FROM person")
+            .attribute(AttributeDef.name("id", Integer.class).aliasName("id").primaryKey(true).build())
+            .attribute(AttributeDef.name("name", String.class).aliasName("name").build())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE person (id INT, name VARCHAR(20))");
+        jdbcTemplate.execute("INSERT INTO person VALUES (1, 'one'), (2, 'two'), (2, 'deux'), (3, 'three')");
+        executor = new QueryExecutorImpl(jdbcTemplate, new QuerySqlBuilder(), new QueryRegistryImpl(),
+                new QueryCountCache(Duration.ZERO, 10), new QueryResultCache(10, null), Runnable::run,
+                new DataSourceTransactionManager(database), ConcurrencyLimiter.disabled(), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    void failsOnlyTheKeyThatMatchesMoreThanOneRow() throws Exception {
+        batcher = new KeyLookupBatcher(executor, Duration.ofMillis(50), 10);
+
+        CompletableFuture<QueryRow> one = find(1, ExecutionDeadline.none());
+        CompletableFuture<QueryRow> two = find(2, ExecutionDeadline.none());
+        CompletableFuture<QueryRow> missing = find(9, ExecutionDeadline.none());
+
+        assertEquals("one", one.get(5, TimeUnit.SECONDS).get("name"));
+        assertNull(missing.get(5, TimeUnit.SECONDS));
+        QueryException error = cause(two);
+        assertEquals(QueryException.ErrorCode.VALIDATION_ERROR.getCode(), error.getErrorCode());
+        assertTrue(error.getMessage().endsWith("FindByKey query returned 2 results, expected 1"));
+    }
+
+    @Test
+    void failsAnUnbatchedKeyThatMatchesMoreThanOneRow() throws Exception {
+        batcher = new KeyLookupBatcher(executor, Duration.ZERO, 10);
+
+        assertEquals("three", find(3, ExecutionDeadline.none()).get(5, TimeUnit.SECONDS).get("name"));
+        assertEquals(QueryException.ErrorCode.VALIDATION_ERROR.getCode(),
+                cause(find(2, ExecutionDeadline.none())).getErrorCode());
+    }
+
+    @Test
+    void callerWaitsNoLongerThanItsDeadline() throws Exception {
+        batcher = new KeyLookupBatcher(executor, Duration.ofSeconds(2), 10);
+
+        CompletableFuture<QueryRow> bounded = find(1, ExecutionDeadline.after(Duration.ofMillis(100)));
+        CompletableFuture<QueryRow> unbounded = find(3, ExecutionDeadline.none());
+
+        assertEquals(QueryException.ErrorCode.TIMEOUT.getCode(), cause(bounded).getErrorCode());
+        // the batch itself still runs for the callers that can wait
+        assertEquals("three", unbounded.get(5, TimeUnit.SECONDS).get("name"));
+    }
+
+    @Test
+    void findAllKeepsKeyOrder() {
+        batcher = new KeyLookupBatcher(executor, Duration.ZERO, 10);
+
+        List<QueryRow> rows = batcher.findAll(people, List.of("3", 9, 1), Map.of(), ExecutionDeadline.none());
+
+        assertEquals(Arrays.asList("three", null, "one"),
+                rows.stream().map(row -> row != null ? row.get("name") : null).toList());
+    }
+
+    private CompletableFuture<QueryRow> find(Object key, ExecutionDeadline deadline) {
+        return batcher.find(people, Map.of(), key, deadline);
+    }
+
+    private static QueryException cause(CompletableFuture<QueryRow> future) {
+        ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(QueryException.class, error.getCause());
+    }
+}
@@ -0,0 +1,73 @@
+package com.balsam.oasis.common.registry.engine.query;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.engine.cache.QueryResultCache;
+import com.balsam.oasis.common.registry.engine.concurrency.ConcurrencyLimiter;
+
+/**
+ * Startup prewarm against an embedded H2 database, with a query that runs far
+ * longer than the prewarm timeout.
+ */
+class QueryPrewarmerTest {
+
+    private static final long TIMEOUT_MILLIS = 1_500;
+
+    private EmbeddedDatabase database;
+    private QueryRegistryImpl registry;
+    private QueryExecutorImpl executor;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        registry = new QueryRegistryImpl();
+        executor = new QueryExecutorImpl(new JdbcTemplate(database), new QuerySqlBuilder(), registry,
+                new QueryCountCache(Duration.ZERO, 10), new QueryResultCache(10, null), Runnable::run,
+                new DataSourceTransactionManager(database), ConcurrencyLimiter.disabled(), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void returnsWithinTimeoutWhenQueryHangs() {
+        registry.register(QueryDefinitionBuilder.builder("fast")
+                .sql("SELECT 1 AS one FROM dual")
+                .paginationEnabled(false)
+                .prewarm()
+                .build());
+        registry.register(QueryDefinitionBuilder.builder("slow")
+                .sql("SELECT SUM(a.x * b.x) AS total FROM SYSTEM_RANGE(1, 1000000) a, SYSTEM_RANGE(1, 1000000) b")
+                .paginationEnabled(false)
+                .prewarm()
+                .build());
+        QueryPrewarmer prewarmer = new QueryPrewarmer(registry, executor, 1, TIMEOUT_MILLIS);
+
+        long start = System.nanoTime();
+        prewarmer.run(new DefaultApplicationArguments());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed < TIMEOUT_MILLIS + 500, "run() took " + elapsed + " ms");
+        assertFalse(prewarmer.getResults().get("slow").success());
+    }
+}
@@ -0,0 +1,97 @@
+package com.balsam.oasis.common.registry.engine.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Routing between a primary and a replica, each an embedded H2 database that
+ * identifies itself through the {@code node} table.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_status (lag_seconds DECIMAL(10, 3))");
+        new JdbcTemplate(replica).update("INSERT INTO replica_status VALUES (0)");
+
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica),
+                ReplicaRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofSeconds(5),
+                "SELECT lag_seconds FROM replica_status", Duration.ZERO);
+        routing.refreshLag();
+        jdbcTemplate = new JdbcTemplate(routing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void usesPrimaryWithoutReadPreference() {
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void routesReadsToReplica() {
+        assertEquals("replica", ReadRouting.call(ReadRouting.ReadPreference.replica(null), this::currentNode));
+    }
+
+    @Test
+    void keepsReadYourWritesOnPrimary() {
+        assertEquals("primary", ReadRouting.call(ReadRouting.ReadPreference.PRIMARY, this::currentNode));
+    }
+
+    @Test
+    void skipsReplicaBeyondLagTolerance() {
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag_seconds = 10");
+        routing.refreshLag();
+
+        assertEquals(10_000, routing.getReplicaLagMillis("replica-1"));
+        assertEquals("primary", ReadRouting.call(ReadRouting.ReadPreference.replica(null), this::currentNode));
+        assertEquals("replica", ReadRouting.call(
+                ReadRouting.ReadPreference.replica(Duration.ofSeconds(30)), this::currentNode));
+    }
+
+    @Test
+    void skipsReplicaWhoseLagCheckFails() {
+        new JdbcTemplate(replica).execute("DROP TABLE replica_status");
+        routing.refreshLag();
+
+        assertEquals(Long.MAX_VALUE, routing.getReplicaLagMillis("replica-1"));
+        assertEquals("primary", ReadRouting.call(ReadRouting.ReadPreference.replica(null), this::currentNode));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return database;
+    }
+}
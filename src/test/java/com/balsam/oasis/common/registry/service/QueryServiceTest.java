@@ -0,0 +1,91 @@
+package com.balsam.oasis.common.registry.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.balsam.oasis.common.registry.builder.QueryDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.common.QueryData;
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.execution.QueryContext;
+import com.balsam.oasis.common.registry.engine.cache.QueryResultCache;
+import com.balsam.oasis.common.registry.engine.concurrency.ConcurrencyLimiter;
+import com.balsam.oasis.common.registry.engine.query.QueryCountCache;
+import com.balsam.oasis.common.registry.engine.query.QueryExecutorImpl;
+import com.balsam.oasis.common.registry.engine.query.QueryRegistryImpl;
+import com.balsam.oasis.common.registry.engine.query.QuerySqlBuilder;
+
+/**
+ * Select mode on an embedded H2 database keeps what the cache attached to the
+ * result.
+ */
+class QueryServiceTest {
+
+    private EmbeddedDatabase database;
+    private QueryService queryService;
+
+    private final QueryDefinitionBuilder departments = QueryDefinitionBuilder.builder("departments")
+            .sql("SELECT id, name FROM department")
+            .attribute(AttributeDef.name("id", Integer.class).aliasName("id").primaryKey(true).build())
+            .attribute(AttributeDef.name("name", String.class).aliasName("name").build())
+            .selectProps("id", "name")
+            .cache(true)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE department (id INT PRIMARY KEY, name VARCHAR(20))");
+        jdbcTemplate.execute("INSERT INTO department VALUES (10, 'Sales'), (20, 'Finance')");
+        QueryExecutorImpl executor = new QueryExecutorImpl(jdbcTemplate, new QuerySqlBuilder(),
+                new QueryRegistryImpl(), new QueryCountCache(Duration.ZERO, 10), new QueryResultCache(10, null),
+                Runnable::run, new DataSourceTransactionManager(database), ConcurrencyLimiter.disabled(), null);
+        queryService = new QueryService(executor, new QueryRegistryImpl(), null, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void selectModeKeepsTheDigestAndExpiry() {
+        QueryData fresh = queryService.executeQuery(selectContext());
+        QueryData cached = queryService.executeQuery(selectContext());
+
+        for (QueryData result : List.of(fresh, cached)) {
+            assertNotNull(result.getDigest());
+            assertNotNull(result.getExpiresAt());
+            assertEquals(List.of(10, 20), result.getRows().stream().map(row -> row.get("value")).toList());
+            assertEquals(List.of("Sales", "Finance"), result.getRows().stream().map(row -> row.get("label")).toList());
+        }
+        assertEquals(fresh.getDigest(), cached.getDigest());
+        assertEquals(fresh.getExpiresAt(), cached.getExpiresAt());
+    }
+
+    private QueryContext selectContext() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("_selectMode", true);
+        return QueryContext.builder()
+                .definition(departments)
+                .params(params)
+                .build();
+    }
+}
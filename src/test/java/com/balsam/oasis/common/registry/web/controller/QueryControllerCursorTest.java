@@ -0,0 +1,230 @@
+package com.balsam.oasis.common.registry.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.balsam.oasis.common.registry.builder.PlsqlDefinitionBuilder;
+import com.balsam.oasis.common.registry.domain.definition.AttributeDef;
+import com.balsam.oasis.common.registry.domain.definition.PlsqlParamDef;
+import com.balsam.oasis.common.registry.domain.execution.ExecutionDeadline;
+import com.balsam.oasis.common.registry.engine.plsql.PlsqlExecutorImpl;
+import com.balsam.oasis.common.registry.engine.plsql.PlsqlRegistryImpl;
+import com.balsam.oasis.common.registry.service.PlsqlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * REF CURSOR outputs, as a list and streamed as NDJSON, on an embedded H2
+ * database. H2 has no REF CURSOR, so the block's {@code OPEN :cursor FOR}
+ * query is run when the cursor parameter is read.
+ */
+class QueryControllerCursorTest {
+
+    private static final Pattern OPEN_FOR = Pattern.compile("OPEN :\\w+ FOR (.*?);");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EmbeddedDatabase database;
+    private Connection connection;
+    private PlsqlService plsqlService;
+    private QueryController controller;
+    private RequestAttributes request;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate setup = new JdbcTemplate(database);
+        setup.execute("CREATE TABLE person (id INT PRIMARY KEY, name VARCHAR(20))");
+        setup.execute("INSERT INTO person VALUES (1, 'one'), (2, 'two'), (3, 'three')");
+
+        connection = database.getConnection();
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(cursorConnection(connection), true);
+        PlsqlRegistryImpl registry = new PlsqlRegistryImpl();
+        registry.register(PlsqlDefinitionBuilder.builder("listPeople")
+                .plsql("BEGIN OPEN :people FOR SELECT id, name FROM person WHERE id >= :minId ORDER BY id; END;")
+                .parameter(PlsqlParamDef.cursor("people")
+                        .attribute(AttributeDef.name("id", Integer.class).aliasName("id").build())
+                        .attribute(AttributeDef.name("personName", String.class).aliasName("name").build())
+                        .build())
+                .parameter(PlsqlParamDef.in("minId", Integer.class).required(true).sqlType(Types.INTEGER).build())
+                .build());
+        PlsqlExecutorImpl executor = new PlsqlExecutorImpl(new JdbcTemplate(dataSource), registry, Runnable::run,
+                new DataSourceTransactionManager(dataSource), 10);
+        plsqlService = new PlsqlService(executor, registry, null, 10);
+        controller = new QueryController(null, null, plsqlService, Runnable::run, objectMapper,
+                Duration.ofSeconds(30));
+
+        request = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(request);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        RequestContextHolder.resetRequestAttributes();
+        connection.close();
+        database.shutdown();
+    }
+
+    @Test
+    void readsTheCursorIntoAListWithoutAConsumer() {
+        Map<String, Object> outputs = plsqlService.executePlsql("listPeople", Map.of("minId", 2));
+
+        assertEquals(List.of(Map.of("id", 2, "personName", "two"), Map.of("id", 3, "personName", "three")),
+                outputs.get("people"));
+    }
+
+    @Test
+    void handsRowsToTheConsumerAndReturnsTheCount() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+
+        Map<String, Object> outputs = plsqlService.streamCursor("listPeople", Map.of("minId", 1), "people",
+                rows::add, ExecutionDeadline.none());
+
+        assertEquals(3, outputs.get("people"));
+        assertEquals(List.of("one", "two", "three"), rows.stream().map(row -> row.get("personName")).toList());
+    }
+
+    @Test
+    void streamsRowsThenTheEnvelope() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = controller.streamCursor("listPeople", "people", "5s",
+                Map.of("minId", 2));
+
+        // published on the request thread, before the body runs
+        assertInstanceOf(ExecutionDeadline.class,
+                request.getAttribute(QueryBaseController.DEADLINE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+        RequestContextHolder.resetRequestAttributes();
+
+        List<Map<String, Object>> lines = lines(response);
+        assertEquals(3, lines.size());
+        assertEquals(Map.of("id", 2, "personName", "two"), lines.get(0));
+        assertEquals(Map.of("id", 3, "personName", "three"), lines.get(1));
+        assertEquals(true, lines.get(2).get("success"));
+        assertEquals(Map.of("people", 2), lines.get(2).get("data"));
+    }
+
+    @Test
+    void endsTheStreamWithTheErrorEnvelope() throws IOException {
+        List<Map<String, Object>> lines = lines(controller.streamCursor("listPeople", "minId", null, Map.of()));
+
+        assertEquals(1, lines.size());
+        assertEquals(false, lines.get(0).get("success"));
+    }
+
+    @Test
+    void rejectsAnInvalidTimeoutBeforeStreaming() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = controller.streamCursor("listPeople", "people", "soon",
+                Map.of("minId", 1));
+
+        assertEquals(400, response.getStatusCode().value());
+        assertNull(request.getAttribute(QueryBaseController.DEADLINE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+        List<Map<String, Object>> lines = lines(response);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).get("message").toString().contains("X-Request-Timeout"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> lines(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            lines.add(objectMapper.readValue(line, Map.class));
+        }
+        return lines;
+    }
+
+    /**
+     * A connection whose callable statements record their IN values and, when
+     * a REF CURSOR is read, run the block's {@code OPEN ... FOR} query with
+     * those values. Close is ignored, so the transaction manager and the test
+     * share it.
+     */
+    private Connection cursorConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (method.getName().equals("prepareCall")) {
+                        return cursorStatement(target, (String) args[0]);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private CallableStatement cursorStatement(Connection target, String block) {
+        Map<Integer, Object> values = new TreeMap<>();
+        return (CallableStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { CallableStatement.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        values.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("getObject") && args.length == 2 && args[1] == ResultSet.class) {
+                        return openCursor(target, block, values);
+                    }
+                    Class<?> type = method.getReturnType();
+                    return type == boolean.class ? false : type == int.class ? 0 : null;
+                });
+    }
+
+    private static ResultSet openCursor(Connection target, String block, Map<Integer, Object> values)
+            throws SQLException {
+        Matcher matcher = OPEN_FOR.matcher(block);
+        if (!matcher.find()) {
+            throw new SQLException("No OPEN ... FOR in " + block);
+        }
+        PreparedStatement statement = target.prepareStatement(matcher.group(1).replaceAll(":[a-zA-Z_]\\w*", "?"));
+        int position = 1;
+        for (Object value : values.values()) {
+            statement.setObject(position++, value);
+        }
+        return statement.executeQuery();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}